@@ -0,0 +1,247 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.config.SteamAPIConfiguration;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import codes.sharky.steamwidget.utils.TopGames;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link SteamApiTransport} on a shared {@link HttpClient}, the default ({@code steam.api.transport=http}).
+ * <p>
+ * The client keeps connections to Steam alive between calls and negotiates HTTP/2 where Steam offers it. Every call has
+ * an explicit connect and response timeout. Responses are decoded by Jackson straight into small records holding only
+ * the fields the application reads, instead of the library's generic models. Owned games are streamed token by token
+ * into a {@link TopGames} selection when only the top games are needed.
+ */
+@Component
+@ConditionalOnProperty(name = "steam.api.transport", havingValue = "http", matchIfMissing = true)
+public class HttpSteamApiTransport implements SteamApiTransport {
+
+    private record PlayerSummariesResponse(PlayerList response) {}
+
+    private record PlayerList(List<PlayerJson> players) {}
+
+    private record PlayerJson(String steamid, String personaname, int personastate, String avatarfull, String gameextrainfo) {}
+
+    private record GamesResponse(GameList response) {}
+
+    private record GameList(List<GameJson> games) {}
+
+    private record GameJson(long appid, String name, @JsonProperty("playtime_forever") long playtimeForever,
+                            @JsonProperty("playtime_2weeks") Long playtime2weeks, @JsonProperty("img_icon_url") String imgIconUrl,
+                            @JsonProperty("img_logo_url") String imgLogoUrl, @JsonProperty("rtime_last_played") long rtimeLastPlayed) {}
+
+    private record VanityResponse(VanityResult response) {}
+
+    private record VanityResult(int success, String steamid) {}
+
+    private final HttpClient client;
+    private final JsonMapper mapper;
+    private final String baseUrl;
+    private final String key;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates the transport.
+     *
+     * @param configuration    configuration holding the API key
+     * @param baseUrl          base URL of the Steam Web API
+     * @param connectTimeoutMs milliseconds to wait for a connection to Steam
+     * @param requestTimeoutMs milliseconds to wait for a response once the request is sent
+     */
+    public HttpSteamApiTransport(SteamAPIConfiguration configuration,
+                                 @Value("${steam.api.http.base-url:https://api.steampowered.com}") String baseUrl,
+                                 @Value("${steam.api.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                 @Value("${steam.api.http.request-timeout-ms:5000}") long requestTimeoutMs) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.mapper = JsonMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                .build();
+        this.baseUrl = baseUrl;
+        this.key = URLEncoder.encode(configuration.getKey() == null ? "" : configuration.getKey(), StandardCharsets.UTF_8);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+
+    @Override
+    public List<SteamPlayer> getPlayerSummaries(List<String> steamIds) throws SteamApiException {
+        PlayerSummariesResponse summaries = get("/ISteamUser/GetPlayerSummaries/v0002/?steamids=" + encode(String.join(",", steamIds)),
+                PlayerSummariesResponse.class);
+        if (summaries.response() == null || summaries.response().players() == null) {
+            return List.of();
+        }
+        return summaries.response().players().stream()
+                .map(player -> new SteamPlayer(player.steamid(), player.personaname(), player.personastate(), player.avatarfull(), player.gameextrainfo()))
+                .toList();
+    }
+
+    @Override
+    public List<SteamGame> getOwnedGames(String steamId) throws SteamApiException {
+        return toGames(get("/IPlayerService/GetOwnedGames/v0001/?include_appinfo=1&include_played_free_games=1&steamid=" + encode(steamId),
+                GamesResponse.class));
+    }
+
+    @Override
+    public List<SteamGame> getTopOwnedGames(String steamId, GameOrder order, int limit) throws SteamApiException {
+        return send("/IPlayerService/GetOwnedGames/v0001/?include_appinfo=1&include_played_free_games=1&steamid=" + encode(steamId),
+                body -> readTopGames(body, order, limit));
+    }
+
+    @Override
+    public List<SteamGame> getRecentlyPlayedGames(String steamId) throws SteamApiException {
+        return toGames(get("/IPlayerService/GetRecentlyPlayedGames/v0001/?steamid=" + encode(steamId), GamesResponse.class));
+    }
+
+    @Override
+    public String resolveVanityUrl(String vanityName) throws SteamApiException {
+        VanityResponse vanity = get("/ISteamUser/ResolveVanityURL/v0001/?vanityurl=" + encode(vanityName), VanityResponse.class);
+        return vanity.response() != null && vanity.response().success() == 1 ? vanity.response().steamid() : null;
+    }
+
+    private static List<SteamGame> toGames(GamesResponse games) {
+        if (games.response() == null || games.response().games() == null) {
+            return List.of();
+        }
+        return games.response().games().stream()
+                .map(game -> new SteamGame(game.appid(), game.name(), game.playtimeForever(), game.playtime2weeks(),
+                        game.imgIconUrl(), game.imgLogoUrl(), game.rtimeLastPlayed()))
+                .toList();
+    }
+
+    /**
+     * Streams the games of a GetOwnedGames response into a {@link TopGames} selection. Only the fields of a
+     * {@link SteamGame} are read, everything else is skipped without being decoded.
+     */
+    private List<SteamGame> readTopGames(InputStream body, GameOrder order, int limit) {
+        TopGames top = new TopGames(limit);
+        try (JsonParser parser = mapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT || !"response".equals(parser.nextName()) || parser.nextToken() != JsonToken.START_OBJECT) {
+                return top.toList();
+            }
+            for (String name = parser.nextName(); name != null; name = parser.nextName()) {
+                if (parser.nextToken() == JsonToken.START_ARRAY && "games".equals(name)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readGame(parser, top, order);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return top.toList();
+    }
+
+    /**
+     * Reads one game object, the parser positioned on its start, and offers it to the selection.
+     */
+    private static void readGame(JsonParser parser, TopGames top, GameOrder order) {
+        long appId = 0;
+        long playtimeForever = 0;
+        long playtime2weeks = -1;
+        long lastPlayed = 0;
+        String name = null;
+        String iconHash = null;
+        String logoHash = null;
+        for (String field = parser.nextName(); field != null; field = parser.nextName()) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "appid" -> appId = parser.getValueAsLong();
+                case "name" -> name = parser.getValueAsString();
+                case "playtime_forever" -> playtimeForever = parser.getValueAsLong();
+                case "playtime_2weeks" -> playtime2weeks = parser.getValueAsLong();
+                case "rtime_last_played" -> lastPlayed = parser.getValueAsLong();
+                case "img_icon_url" -> iconHash = parser.getValueAsString();
+                case "img_logo_url" -> logoHash = parser.getValueAsString();
+                default -> {
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        top.offer(order.score(playtimeForever, lastPlayed), appId, name, playtimeForever, playtime2weeks, iconHash, logoHash, lastPlayed);
+    }
+
+    /**
+     * Sends a GET request to the Steam Web API and decodes the response body into a record.
+     *
+     * @param pathAndQuery path and query of the endpoint, without the API key
+     * @param type         the record the response is decoded into
+     * @return the decoded response
+     * @throws SteamApiException if the request fails or the response cannot be decoded
+     */
+    private <T> T get(String pathAndQuery, Class<T> type) throws SteamApiException {
+        return send(pathAndQuery, body -> mapper.readValue(body, type));
+    }
+
+    /**
+     * Reads a response body.
+     *
+     * @param <T> the decoded type
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Sends a GET request to the Steam Web API and reads the response body.
+     *
+     * @param pathAndQuery path and query of the endpoint, without the API key
+     * @param reader       reads the body of a successful response
+     * @return the decoded response
+     * @throws SteamApiException if the request fails, times out, is answered with a status other than 200, or the
+     *                           response cannot be decoded
+     */
+    private <T> T send(String pathAndQuery, BodyReader<T> reader) throws SteamApiException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery + "&format=json&key=" + key))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new SteamApiException("Steam Web API responded with status " + response.statusCode() + " to " + request.uri().getPath());
+                }
+                return reader.read(body);
+            }
+        } catch (IOException | JacksonException e) {
+            throw new SteamApiException("Steam Web API request to " + request.uri().getPath() + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SteamApiException("Interrupted during Steam Web API request to " + request.uri().getPath());
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+}
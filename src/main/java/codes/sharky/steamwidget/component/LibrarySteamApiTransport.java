@@ -0,0 +1,92 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.config.SteamAPIConfiguration;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
+import com.lukaspradel.steamapi.data.json.ownedgames.GetOwnedGames;
+import com.lukaspradel.steamapi.data.json.playersummaries.GetPlayerSummaries;
+import com.lukaspradel.steamapi.data.json.playersummaries.Player;
+import com.lukaspradel.steamapi.data.json.recentlyplayedgames.GetRecentlyPlayedGames;
+import com.lukaspradel.steamapi.data.json.resolvevanityurl.ResolveVanityURL;
+import com.lukaspradel.steamapi.webapi.client.SteamWebApiClient;
+import com.lukaspradel.steamapi.webapi.request.GetOwnedGamesRequest;
+import com.lukaspradel.steamapi.webapi.request.GetPlayerSummariesRequest;
+import com.lukaspradel.steamapi.webapi.request.GetRecentlyPlayedGamesRequest;
+import com.lukaspradel.steamapi.webapi.request.ResolveVanityUrlRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SteamApiTransport} on the {@link SteamWebApiClient} of the steam-web-api library, selected with
+ * {@code steam.api.transport=library}. Responses are mapped from the library's models.
+ */
+@Component
+@ConditionalOnProperty(name = "steam.api.transport", havingValue = "library")
+public class LibrarySteamApiTransport implements SteamApiTransport {
+
+    private final SteamWebApiClient client;
+
+    public LibrarySteamApiTransport(SteamAPIConfiguration configuration) {
+        this.client = new SteamWebApiClient.SteamWebApiClientBuilder(configuration.getKey()).build();
+    }
+
+    @Override
+    public List<SteamPlayer> getPlayerSummaries(List<String> steamIds) throws SteamApiException {
+        GetPlayerSummariesRequest request = new GetPlayerSummariesRequest.GetPlayerSummariesRequestBuilder(steamIds).buildRequest();
+        GetPlayerSummaries summaries = client.processRequest(request);
+        return summaries.getResponse().getPlayers().stream().map(LibrarySteamApiTransport::toPlayer).toList();
+    }
+
+    @Override
+    public List<SteamGame> getOwnedGames(String steamId) throws SteamApiException {
+        GetOwnedGamesRequest request = new GetOwnedGamesRequest.GetOwnedGamesRequestBuilder(steamId).includeAppInfo(true).includePlayedFreeGames(true).buildRequest();
+        GetOwnedGames ownedGames = client.processRequest(request);
+        if (ownedGames.getResponse().getGames() == null) {
+            return List.of();
+        }
+        return ownedGames.getResponse().getGames().stream()
+                .map(game -> new SteamGame(game.getAppid(), game.getName(), game.getPlaytimeForever(),
+                        toLong(game.getAdditionalProperties(), "playtime_2weeks"), game.getImgIconUrl(), game.getImgLogoUrl(),
+                        orZero(toLong(game.getAdditionalProperties(), "rtime_last_played"))))
+                .toList();
+    }
+
+    @Override
+    public List<SteamGame> getRecentlyPlayedGames(String steamId) throws SteamApiException {
+        GetRecentlyPlayedGamesRequest request = new GetRecentlyPlayedGamesRequest.GetRecentlyPlayedGamesRequestBuilder(steamId).buildRequest();
+        GetRecentlyPlayedGames recentlyPlayedGames = client.processRequest(request);
+        if (recentlyPlayedGames.getResponse().getGames() == null) {
+            return List.of();
+        }
+        return recentlyPlayedGames.getResponse().getGames().stream()
+                .map(game -> new SteamGame(game.getAppid(), game.getName(), game.getPlaytimeForever(), game.getPlaytime2weeks(),
+                        game.getImgIconUrl(), game.getImgLogoUrl(), 0))
+                .toList();
+    }
+
+    @Override
+    public String resolveVanityUrl(String vanityName) throws SteamApiException {
+        ResolveVanityUrlRequest request = new ResolveVanityUrlRequest.ResolveVanityUrlRequestBuilder(vanityName).buildRequest();
+        ResolveVanityURL vanityURL = client.processRequest(request);
+        return vanityURL.getResponse().getSteamid();
+    }
+
+    private static SteamPlayer toPlayer(Player player) {
+        Object currentGame = player.getAdditionalProperties().get("gameextrainfo");
+        return new SteamPlayer(player.getSteamid(), player.getPersonaname(), Math.toIntExact(orZero(player.getPersonastate())),
+                player.getAvatarfull(), currentGame == null ? null : currentGame.toString());
+    }
+
+    private static Long toLong(Map<String, Object> properties, String name) {
+        return properties.get(name) instanceof Number number ? number.longValue() : null;
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+}
@@ -0,0 +1,196 @@
+package codes.sharky.steamwidget.component;
+
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker and bulkhead per Steam Web API endpoint, so a degraded endpoint fails fast instead of tying up
+ * request and tracker threads for the full socket timeout.
+ * <p>
+ * An endpoint's circuit opens after a number of consecutive failed or slow calls. While it is open, calls are rejected
+ * right away with a {@link SteamApiUnavailableException}. Once the open period has passed, a single trial call is let
+ * through: its success closes the circuit, its failure opens it again. Independently, each endpoint only allows a
+ * limited number of concurrent calls, and callers that cannot get a slot in time are rejected as well.
+ */
+@Component
+@Slf4j
+public class SteamApiCircuitBreaker {
+
+    /**
+     * Thrown when a call is rejected without contacting Steam, because the endpoint's circuit is open or its bulkhead
+     * is full. Such failures are not worth retrying right away.
+     */
+    public static class SteamApiUnavailableException extends SteamApiException {
+        public SteamApiUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A Steam Web API call.
+     *
+     * @param <T> the response type
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws SteamApiException;
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMs;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the circuit breaker.
+     *
+     * @param failureThreshold    consecutive failed or slow calls after which an endpoint's circuit opens
+     * @param openSeconds         seconds a circuit stays open before a trial call is let through
+     * @param slowCallMs          milliseconds after which a successful call counts as failed
+     * @param maxConcurrentCalls  maximum number of concurrent calls per endpoint
+     * @param maxWaitMs           milliseconds a call waits for a free slot of its endpoint before it is rejected
+     */
+    public SteamApiCircuitBreaker(@Value("${steam.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                  @Value("${steam.api.circuit-breaker.open-seconds:30}") long openSeconds,
+                                  @Value("${steam.api.circuit-breaker.slow-call-ms:5000}") long slowCallMs,
+                                  @Value("${steam.api.bulkhead.max-concurrent:10}") int maxConcurrentCalls,
+                                  @Value("${steam.api.bulkhead.max-wait-ms:250}") long maxWaitMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1, openSeconds));
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, slowCallMs));
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+    }
+
+    /**
+     * Returns whether calls to the endpoint are currently rejected without contacting Steam.
+     *
+     * @param endpoint name of the Steam Web API endpoint
+     * @return true if the endpoint's circuit is open
+     */
+    public boolean isOpen(String endpoint) {
+        Endpoint state = endpoints.get(endpoint);
+        return state != null && state.isOpen(System.nanoTime());
+    }
+
+    /**
+     * @return true if the circuit of any endpoint is open
+     */
+    public boolean isAnyOpen() {
+        long now = System.nanoTime();
+        return endpoints.values().stream().anyMatch(state -> state.isOpen(now));
+    }
+
+    /**
+     * Runs a call to the endpoint if its circuit and bulkhead permit it, and records the outcome.
+     *
+     * @param endpoint name of the Steam Web API endpoint
+     * @param call     the call
+     * @param <T>      the response type
+     * @return the response
+     * @throws SteamApiUnavailableException if the circuit is open or the bulkhead is full
+     * @throws SteamApiException            if the call failed
+     */
+    public <T> T call(String endpoint, Call<T> call) throws SteamApiException {
+        Endpoint state = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+        state.permit();
+
+        try {
+            if (!state.bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                state.release();
+                throw new SteamApiUnavailableException("Too many concurrent " + endpoint + " calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state.release();
+            throw new SteamApiUnavailableException("Interrupted while waiting for a " + endpoint + " slot");
+        }
+
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = call.call();
+            succeeded = System.nanoTime() - start < slowCallNanos;
+            return result;
+        } finally {
+            state.bulkhead.release();
+            state.record(succeeded);
+        }
+    }
+
+    /**
+     * Circuit state and bulkhead of a single endpoint.
+     */
+    private class Endpoint {
+
+        private final String name;
+        private final Semaphore bulkhead = new Semaphore(maxConcurrentCalls);
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        synchronized boolean isOpen(long now) {
+            return state == State.OPEN && now - openedAt < openNanos;
+        }
+
+        /**
+         * Lets a call through, or rejects it while the circuit is open or a trial call is in flight.
+         */
+        synchronized void permit() throws SteamApiUnavailableException {
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return;
+            }
+            throw new SteamApiUnavailableException("Steam Web API endpoint " + name + " is unavailable");
+        }
+
+        /**
+         * Gives up a permitted call that was not made, so a trial can be attempted by the next call.
+         */
+        synchronized void release() {
+            trialInFlight = false;
+        }
+
+        synchronized void record(boolean succeeded) {
+            trialInFlight = false;
+            if (succeeded) {
+                if (state != State.CLOSED) {
+                    log.info("Steam Web API endpoint {} recovered, closing circuit", name);
+                }
+                state = State.CLOSED;
+                consecutiveFailures = 0;
+            } else if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                if (state != State.OPEN) {
+                    log.warn("Steam Web API endpoint {} is failing, opening circuit for {} seconds", name, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+                }
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        }
+    }
+
+}
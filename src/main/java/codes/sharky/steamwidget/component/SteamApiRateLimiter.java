@@ -0,0 +1,254 @@
+package codes.sharky.steamwidget.component;
+
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket shared by every Steam Web API call, since all of them count against the same API key.
+ * <p>
+ * Calls run with the {@link Priority} bound to the calling thread, {@link Priority#INTERACTIVE} unless a scheduled job
+ * switched to {@link Priority#BACKGROUND}. Background calls leave a reserve of tokens to interactive calls, wait while
+ * interactive calls are waiting, and stop once their share of the daily quota is used up. Interactive calls fail fast
+ * instead of queueing behind a burst.
+ * <p>
+ * Calls are counted per endpoint and UTC day (Steam's quota day), and published as the {@code steam.api.requests}
+ * counter.
+ */
+@Component
+@Slf4j
+public class SteamApiRateLimiter {
+
+    /**
+     * Priority of Steam Web API calls.
+     */
+    public enum Priority {
+        /** Calls a user is waiting for, such as widget and profile requests. */
+        INTERACTIVE,
+        /** Calls of scheduled jobs, such as tracking and profile cache refreshes. */
+        BACKGROUND
+    }
+
+    /** Number of days call counts are kept for. */
+    private static final int RETAINED_DAYS = 7;
+
+    private static final ThreadLocal<Priority> PRIORITY = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private final MeterRegistry meterRegistry;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final double interactiveReserve;
+    private final long interactiveMaxWaitNanos;
+    private final long backgroundDailyLimit;
+
+    /** Guards the bucket; a lock instead of a monitor so waiting virtual threads do not pin their carrier. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition tokensChanged = lock.newCondition();
+    private double tokens;
+    private long lastRefill;
+    private int interactiveWaiting;
+
+    /** Calls per UTC day and endpoint. */
+    private final Map<LocalDate, Map<String, LongAdder>> dailyCalls = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the rate limiter.
+     *
+     * @param meterRegistry         registry the call counters are published to
+     * @param requestsPerSecond     sustained number of calls per second
+     * @param burst                 number of calls that may be made at once after a quiet period
+     * @param interactiveReserve    tokens background calls leave to interactive calls
+     * @param interactiveMaxWaitMs  milliseconds an interactive call waits for a token before it fails
+     * @param dailyQuota            calls per day allowed by Steam for the API key
+     * @param backgroundQuotaShare  share of the daily quota background calls may use
+     */
+    public SteamApiRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${steam.api.rate-limit.requests-per-second:10}") double requestsPerSecond,
+                               @Value("${steam.api.rate-limit.burst:20}") int burst,
+                               @Value("${steam.api.rate-limit.interactive-reserve:5}") int interactiveReserve,
+                               @Value("${steam.api.rate-limit.interactive-max-wait-ms:2000}") long interactiveMaxWaitMs,
+                               @Value("${steam.api.rate-limit.daily-quota:100000}") long dailyQuota,
+                               @Value("${steam.api.rate-limit.background-quota-share:0.8}") double backgroundQuotaShare) {
+        this.meterRegistry = meterRegistry;
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = Math.max(requestsPerSecond, 0.001) / TimeUnit.SECONDS.toNanos(1);
+        this.interactiveReserve = Math.min(Math.max(0, interactiveReserve), capacity - 1);
+        this.interactiveMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, interactiveMaxWaitMs));
+        this.backgroundDailyLimit = (long) (dailyQuota * backgroundQuotaShare);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return the priority of Steam Web API calls made by the current thread
+     */
+    public static Priority currentPriority() {
+        return PRIORITY.get();
+    }
+
+    /**
+     * A task that may throw a checked exception.
+     *
+     * @param <E> the checked exception type
+     */
+    @FunctionalInterface
+    public interface Task<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Runs a task with the given priority for all Steam Web API calls it makes on the current thread.
+     *
+     * @param priority the priority
+     * @param task     the task to run
+     * @param <E>      the checked exception type of the task
+     * @throws E the exception thrown by the task
+     */
+    public static <E extends Exception> void runWithPriority(Priority priority, Task<E> task) throws E {
+        Priority previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            task.run();
+        } finally {
+            PRIORITY.set(previous);
+        }
+    }
+
+    /**
+     * Waits for a token for a call to the given endpoint and counts the call.
+     *
+     * @param endpoint name of the Steam Web API endpoint
+     * @throws SteamApiException if no token became available in time, the background quota is used up, or the thread
+     *                           was interrupted
+     */
+    public void acquire(String endpoint) throws SteamApiException {
+        Priority priority = currentPriority();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (priority == Priority.BACKGROUND && callsOn(today) >= backgroundDailyLimit) {
+            throw new SteamApiException("Daily Steam Web API quota for background calls is used up");
+        }
+
+        try {
+            if (priority == Priority.INTERACTIVE) {
+                acquireInteractive();
+            } else {
+                acquireBackground();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SteamApiException("Interrupted while waiting for the Steam Web API rate limit");
+        }
+
+        count(today, endpoint);
+        Counter.builder("steam.api.requests")
+                .tag("endpoint", endpoint)
+                .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Returns the number of calls per endpoint made on the given UTC day, as far as it is retained.
+     *
+     * @param day the UTC day
+     * @return calls per endpoint
+     */
+    public Map<String, Long> getDailyCalls(LocalDate day) {
+        Map<String, LongAdder> calls = dailyCalls.getOrDefault(day, Map.of());
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        calls.forEach((endpoint, count) -> result.put(endpoint, count.sum()));
+        return result;
+    }
+
+    private void acquireInteractive() throws InterruptedException, SteamApiException {
+        long deadline = System.nanoTime() + interactiveMaxWaitNanos;
+        lock.lockInterruptibly();
+        interactiveWaiting++;
+        try {
+            while (true) {
+                refill();
+                if (tokens >= 1) {
+                    tokens--;
+                    return;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SteamApiException("Steam Web API rate limit exceeded");
+                }
+                tokensChanged.awaitNanos(Math.min(remaining, nanosUntil(1)));
+            }
+        } finally {
+            interactiveWaiting--;
+            tokensChanged.signalAll();
+            lock.unlock();
+        }
+    }
+
+    private void acquireBackground() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                refill();
+                if (interactiveWaiting == 0 && tokens >= 1 + interactiveReserve) {
+                    tokens--;
+                    return;
+                }
+                tokensChanged.awaitNanos(nanosUntil(1 + interactiveReserve));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+
+    /**
+     * @return nanoseconds until the bucket holds the given number of tokens, at least one millisecond
+     */
+    private long nanosUntil(double needed) {
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) Math.ceil((needed - tokens) / tokensPerNano));
+    }
+
+    private long callsOn(LocalDate day) {
+        Map<String, LongAdder> calls = dailyCalls.get(day);
+        return calls == null ? 0 : calls.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private void count(LocalDate day, String endpoint) {
+        Map<String, LongAdder> calls = dailyCalls.get(day);
+        if (calls == null) {
+            calls = dailyCalls.computeIfAbsent(day, d -> new ConcurrentHashMap<>());
+            rollOver(day);
+        }
+        calls.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    /**
+     * Logs the call counts of the previous day and drops days that are no longer retained.
+     */
+    private void rollOver(LocalDate today) {
+        LocalDate yesterday = today.minusDays(1);
+        if (dailyCalls.containsKey(yesterday)) {
+            log.info("Steam Web API calls on {}: {}", yesterday, getDailyCalls(yesterday));
+        }
+        dailyCalls.keySet().removeIf(day -> day.isBefore(today.minusDays(RETAINED_DAYS)));
+    }
+
+}
@@ -0,0 +1,88 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import codes.sharky.steamwidget.utils.TopGames;
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
+
+import java.util.List;
+
+/**
+ * Performs the Steam Web API calls the application uses. The implementation is selected with the
+ * {@code steam.api.transport} property; rate limiting and circuit breaking are applied around it by {@link SteamWebAPI}.
+ */
+public interface SteamApiTransport {
+
+    /**
+     * Order in which {@link #getTopOwnedGames(String, GameOrder, int)} ranks games.
+     */
+    enum GameOrder {
+        /** Most total playtime first. */
+        PLAYTIME_FOREVER,
+        /** Most recently played first. */
+        LAST_PLAYED;
+
+        /**
+         * @return the score of a game in this order, higher ranks first
+         */
+        public long score(long playtimeForever, long lastPlayed) {
+            return this == PLAYTIME_FOREVER ? playtimeForever : lastPlayed;
+        }
+    }
+
+    /**
+     * Calls ISteamUser/GetPlayerSummaries.
+     *
+     * @param steamIds at most 100 Steam64 IDs
+     * @return the summaries of the players that exist, in no particular order
+     * @throws SteamApiException if the request fails
+     */
+    List<SteamPlayer> getPlayerSummaries(List<String> steamIds) throws SteamApiException;
+
+    /**
+     * Calls IPlayerService/GetOwnedGames, including app info and played free games.
+     *
+     * @param steamId the Steam64 ID
+     * @return the owned games, empty if the profile's game details are private
+     * @throws SteamApiException if the request fails
+     */
+    List<SteamGame> getOwnedGames(String steamId) throws SteamApiException;
+
+    /**
+     * Calls IPlayerService/GetOwnedGames, including app info and played free games, and keeps only the top games.
+     * This implementation selects them from {@link #getOwnedGames(String)}, transports that can stream the response
+     * should override it to avoid materialising every owned game.
+     *
+     * @param steamId the Steam64 ID
+     * @param order   the order games are ranked in
+     * @param limit   the maximum number of games to return
+     * @return the top owned games, best first; games ranked equally keep Steam's order
+     * @throws SteamApiException if the request fails
+     */
+    default List<SteamGame> getTopOwnedGames(String steamId, GameOrder order, int limit) throws SteamApiException {
+        TopGames top = new TopGames(limit);
+        for (SteamGame game : getOwnedGames(steamId)) {
+            top.offer(order.score(game.playtimeForever(), game.lastPlayed()), game);
+        }
+        return top.toList();
+    }
+
+    /**
+     * Calls IPlayerService/GetRecentlyPlayedGames.
+     *
+     * @param steamId the Steam64 ID
+     * @return the games played in the last two weeks
+     * @throws SteamApiException if the request fails
+     */
+    List<SteamGame> getRecentlyPlayedGames(String steamId) throws SteamApiException;
+
+    /**
+     * Calls ISteamUser/ResolveVanityURL.
+     *
+     * @param vanityName the vanity name
+     * @return the Steam64 ID, or null if no profile uses the vanity name
+     * @throws SteamApiException if the request fails
+     */
+    String resolveVanityUrl(String vanityName) throws SteamApiException;
+
+}
@@ -1,35 +1,96 @@
 package codes.sharky.steamwidget.component;
 
-import com.lukaspradel.steamapi.webapi.client.SteamWebApiClient;
-import codes.sharky.steamwidget.config.SteamAPIConfiguration;
-import lombok.Getter;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import com.lukaspradel.steamapi.core.exception.SteamApiException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Represents the component responsible for creating and managing the {@link SteamWebApiClient} instance.
- * This component is crucial for enabling communication with the Steam Web API by providing a configured client.
- * It leverages the {@link SteamAPIConfiguration} to obtain the necessary API key for client initialization.
+ * Represents the component responsible for all communication with the Steam Web API.
+ * The calls are performed by the configured {@link SteamApiTransport}. Every call first takes a token from the shared
+ * {@link SteamApiRateLimiter} and runs within the {@link SteamApiCircuitBreaker} of its endpoint.
  */
 @Component
 public class SteamWebAPI {
 
-    private final SteamAPIConfiguration configuration;
+    private static final String PLAYER_SUMMARIES = "GetPlayerSummaries";
+    private static final String OWNED_GAMES = "GetOwnedGames";
+    private static final String RECENTLY_PLAYED_GAMES = "GetRecentlyPlayedGames";
+    private static final String RESOLVE_VANITY_URL = "ResolveVanityUrl";
+
+    private final SteamApiTransport transport;
+
+    private final SteamApiRateLimiter rateLimiter;
+
+    private final SteamApiCircuitBreaker circuitBreaker;
+
+    public SteamWebAPI(SteamApiTransport transport, SteamApiRateLimiter rateLimiter, SteamApiCircuitBreaker circuitBreaker) {
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @see SteamApiTransport#getPlayerSummaries(List)
+     */
+    public List<SteamPlayer> getPlayerSummaries(List<String> steamIds) throws SteamApiException {
+        return call(PLAYER_SUMMARIES, () -> transport.getPlayerSummaries(steamIds));
+    }
 
-    @Getter
-    private SteamWebApiClient client;
+    /**
+     * @see SteamApiTransport#getOwnedGames(String)
+     */
+    public List<SteamGame> getOwnedGames(String steamId) throws SteamApiException {
+        return call(OWNED_GAMES, () -> transport.getOwnedGames(steamId));
+    }
 
-    public SteamWebAPI(SteamAPIConfiguration configuration) {
-        this.configuration = configuration;
-        init();
+    /**
+     * @see SteamApiTransport#getTopOwnedGames(String, SteamApiTransport.GameOrder, int)
+     */
+    public List<SteamGame> getTopOwnedGames(String steamId, SteamApiTransport.GameOrder order, int limit) throws SteamApiException {
+        return call(OWNED_GAMES, () -> transport.getTopOwnedGames(steamId, order, limit));
+    }
+
+    /**
+     * @see SteamApiTransport#getRecentlyPlayedGames(String)
+     */
+    public List<SteamGame> getRecentlyPlayedGames(String steamId) throws SteamApiException {
+        return call(RECENTLY_PLAYED_GAMES, () -> transport.getRecentlyPlayedGames(steamId));
+    }
+
+    /**
+     * @see SteamApiTransport#resolveVanityUrl(String)
+     */
+    public String resolveVanityUrl(String vanityName) throws SteamApiException {
+        return call(RESOLVE_VANITY_URL, () -> transport.resolveVanityUrl(vanityName));
+    }
+
+    /**
+     * @return true if Steam is currently considered degraded, because the circuit of any endpoint is open
+     */
+    public boolean isDegraded() {
+        return circuitBreaker.isAnyOpen();
     }
 
     /**
-     * Initializes the {@link SteamWebApiClient} with the API key obtained from the {@link SteamAPIConfiguration}.
-     * This method constructs a new {@link SteamWebApiClient} instance using the API key provided in the
-     * application's configuration, facilitating the interaction with the Steam Web API.
+     * Performs a call once the rate limiter grants it, with the priority of the calling thread. Calls to an endpoint
+     * whose circuit is open fail right away, without using a token.
+     *
+     * @param endpoint name of the endpoint
+     * @param call     the call
+     * @param <T>      the response type
+     * @return the response
+     * @throws SteamApiCircuitBreaker.SteamApiUnavailableException if the endpoint's circuit is open or its bulkhead is full
+     * @throws SteamApiException if the rate limiter rejects the call or the call fails
      */
-    private void init() {
-        client = new SteamWebApiClient.SteamWebApiClientBuilder(configuration.getKey()).build();
+    private <T> T call(String endpoint, SteamApiCircuitBreaker.Call<T> call) throws SteamApiException {
+        if (circuitBreaker.isOpen(endpoint)) {
+            throw new SteamApiCircuitBreaker.SteamApiUnavailableException("Steam Web API endpoint " + endpoint + " is unavailable");
+        }
+        rateLimiter.acquire(endpoint);
+        return circuitBreaker.call(endpoint, call);
     }
 
 }
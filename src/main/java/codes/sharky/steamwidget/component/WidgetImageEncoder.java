@@ -0,0 +1,82 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.model.WidgetFormat;
+import codes.sharky.steamwidget.utils.PaletteQuantizer;
+import codes.sharky.steamwidget.utils.WebPLosslessEncoder;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes rendered widgets into their wire format.
+ * <p>
+ * Images are written straight into the given stream through an in-memory image output stream, so encoding never
+ * goes through the disk cache {@link ImageIO} would otherwise use, and the deflate level of the PNG encoder is
+ * configurable to trade CPU for response size. Besides full-color PNG, widgets can be written as palette-quantised
+ * PNG and as lossless WebP, both of which are considerably smaller for the flat colors of a widget.
+ */
+@Component
+public class WidgetImageEncoder {
+
+    private final int compressionLevel;
+
+    /**
+     * Creates the encoder.
+     *
+     * @param compressionLevel PNG deflate level from 0 (no compression, fastest) to 9 (smallest output)
+     */
+    public WidgetImageEncoder(@Value("${widget.png.compression-level:6}") int compressionLevel) {
+        this.compressionLevel = Math.clamp(compressionLevel, 0, 9);
+    }
+
+    /**
+     * Writes the image in the given raster format into the given stream. The stream is not closed.
+     *
+     * @param image  the image to encode
+     * @param format the raster format to write, {@link WidgetFormat#SVG} is not a raster format and not supported here
+     * @param out    the stream the image is written to
+     * @throws IOException if the image could not be encoded or written
+     */
+    public void write(@NotNull BufferedImage image, @NotNull WidgetFormat format, @NotNull OutputStream out) throws IOException {
+        switch (format) {
+            case PNG -> writePng(image, out);
+            case PNG8 -> writePng(PaletteQuantizer.quantize(image), out);
+            case WEBP -> WebPLosslessEncoder.write(image, out);
+            default -> throw new IllegalArgumentException("Not a raster format: " + format);
+        }
+    }
+
+    /**
+     * Writes the image as PNG into the given stream. The stream is not closed.
+     *
+     * @param image the image to encode
+     * @param out   the stream the PNG is written to
+     * @throws IOException if the image could not be encoded or written
+     */
+    public void writePng(@NotNull BufferedImage image, @NotNull OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                /* The JDK PNG writer maps a quality of 1.0 to deflate level 0 and 0.0 to level 9 */
+                param.setCompressionQuality(1f - compressionLevel / 9f);
+            }
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+}
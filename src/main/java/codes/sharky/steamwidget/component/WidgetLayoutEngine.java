@@ -0,0 +1,77 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.model.WidgetLayout;
+import codes.sharky.steamwidget.model.WidgetLayout.Box;
+import codes.sharky.steamwidget.model.WidgetLayout.GameRow;
+import codes.sharky.steamwidget.model.WidgetLayout.TextRun;
+import org.springframework.stereotype.Component;
+
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes the {@link WidgetLayout} of a widget. The layout only depends on the number of game rows and on whether
+ * the currently played game is shown, so there are only a few distinct layouts and each is computed once.
+ */
+@Component
+public class WidgetLayoutEngine {
+
+    /** Width of the widget layout in layout units; all coordinates refer to this width. */
+    public static final int BASE_WIDTH = 3500;
+
+    private static final int HEADER_HEIGHT = 750;
+
+    private static final int ROW_HEIGHT = 500;
+
+    private static final String FONT = "ARIAL";
+
+    private static final String PRIMARY_COLOR = "#ffffff";
+
+    private static final String SECONDARY_COLOR = "#c7d5e0";
+
+    private final Map<Shape, WidgetLayout> layouts = new ConcurrentHashMap<>();
+
+    private record Shape(int games, boolean currentGame) {
+    }
+
+    /**
+     * Returns the layout of a widget with the given shape.
+     *
+     * @param games       The number of game rows.
+     * @param currentGame Whether a line with the currently played game is shown.
+     * @return The shared layout.
+     */
+    public WidgetLayout layout(int games, boolean currentGame) {
+        return layouts.computeIfAbsent(new Shape(games, currentGame), this::computeLayout);
+    }
+
+    private WidgetLayout computeLayout(Shape shape) {
+        TextRun personaName = new TextRun(FONT, Font.BOLD, 200, PRIMARY_COLOR, 725, shape.currentGame() ? 350 : 450);
+        TextRun currentGame = shape.currentGame() ? new TextRun(FONT, Font.PLAIN, 150, SECONDARY_COLOR, 725, 550) : null;
+
+        List<GameRow> rows = new ArrayList<>(shape.games());
+        for (int i = 0; i < shape.games(); i++) {
+            int top = HEADER_HEIGHT + i * ROW_HEIGHT;
+            rows.add(new GameRow(
+                    new Box(225, top + 100, 300, 300, 0),
+                    new TextRun(FONT, Font.BOLD, 100, PRIMARY_COLOR, 725, top + 250),
+                    new TextRun(FONT, Font.PLAIN, 75, SECONDARY_COLOR, 725, top + 350),
+                    new TextRun(FONT, Font.PLAIN, 75, SECONDARY_COLOR, 1725, top + 350)));
+        }
+
+        return new WidgetLayout(
+                BASE_WIDTH,
+                HEADER_HEIGHT + shape.games() * ROW_HEIGHT,
+                new Box(BASE_WIDTH - 500, 100, 400, 120, 0),
+                new Box(125, 125, 500, 500, 0),
+                personaName,
+                currentGame,
+                new Box(BASE_WIDTH - 150, 600, 100, 100, 100),
+                shape.games() > 0 ? new Box(25, HEADER_HEIGHT - 5, BASE_WIDTH - 50, 10, 5) : null,
+                List.copyOf(rows));
+    }
+
+}
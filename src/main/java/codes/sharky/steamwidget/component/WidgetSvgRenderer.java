@@ -0,0 +1,191 @@
+package codes.sharky.steamwidget.component;
+
+import codes.sharky.steamwidget.model.WidgetData;
+import codes.sharky.steamwidget.model.WidgetGame;
+import codes.sharky.steamwidget.model.WidgetLayout;
+import codes.sharky.steamwidget.model.WidgetLayout.Box;
+import codes.sharky.steamwidget.model.WidgetLayout.GameRow;
+import codes.sharky.steamwidget.model.WidgetLayout.TextRun;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+import java.awt.Font;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Renders widgets as SVG documents.
+ * <p>
+ * The SVG is built from the same {@link WidgetLayout} as the raster widget and uses its size as the view box, so it
+ * scales to any width without server-side rasterisation. The avatar and game icons are referenced by their Steam URLs and
+ * clipped to circles by the client; the Steam logo is inlined from the static SVG asset.
+ */
+@Slf4j
+@Component
+public class WidgetSvgRenderer {
+
+    private static final String FONT = "font-family=\"Arial, Helvetica, sans-serif\"";
+
+    private final WidgetLayoutEngine widgetLayoutEngine;
+
+    /** Paths of the Steam logo, without the surrounding svg element. */
+    private final String steamLogoPaths;
+
+    public WidgetSvgRenderer(WidgetLayoutEngine widgetLayoutEngine) {
+        this.widgetLayoutEngine = widgetLayoutEngine;
+        this.steamLogoPaths = loadSvgBody("/static/img/steam_logo.svg");
+    }
+
+    /**
+     * Renders the widget as an SVG document.
+     *
+     * @param data                The data the widget is rendered from.
+     * @param showPlayingRightNow A boolean indicating whether to show the game the user is currently playing.
+     * @param width               The width of the resulting image in pixels, 0 for the full layout width.
+     * @return The SVG document.
+     */
+    public String render(@NotNull WidgetData data, boolean showPlayingRightNow, int width) {
+        WidgetLayout layout = widgetLayoutEngine.layout(data.games().size(), showPlayingRightNow && !data.currentGame().isEmpty());
+        int outputWidth = width > 0 ? width : layout.width();
+        long outputHeight = Math.round(layout.height() * (outputWidth / (double) layout.width()));
+
+        StringBuilder svg = new StringBuilder(4096);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+                .append(" width=\"").append(outputWidth).append("\" height=\"").append(outputHeight)
+                .append("\" viewBox=\"0 0 ").append(layout.width()).append(' ').append(layout.height()).append("\">");
+
+        /* Base widget: background, border and logo */
+        svg.append("<rect width=\"").append(layout.width()).append("\" height=\"").append(layout.height())
+                .append("\" rx=\"50\" fill=\"#171d25\" stroke=\"#1b2838\"/>");
+        Box logo = layout.logo();
+        svg.append("<svg x=\"").append(logo.x()).append("\" y=\"").append(logo.y()).append("\" width=\"").append(logo.width()).append("\" height=\"").append(logo.height())
+                .append("\" viewBox=\"0 0 295.457 90.473\" preserveAspectRatio=\"none\" fill=\"white\">")
+                .append(steamLogoPaths).append("</svg>");
+
+        if (!data.steamId().isEmpty()) {
+            appendCircleImage(svg, "avatar", data.avatarUrl(), layout.avatar());
+
+            appendText(svg, layout.personaName(), data.personaName());
+            if (layout.currentGame() != null) {
+                appendText(svg, layout.currentGame(), data.currentGame());
+            }
+            Box dot = layout.stateDot();
+            svg.append("<circle cx=\"").append(dot.x() + dot.width() / 2.0).append("\" cy=\"").append(dot.y() + dot.height() / 2.0)
+                    .append("\" r=\"").append(dot.width() / 2.0).append("\" fill=\"").append(stateColor(data)).append("\"/>");
+
+            appendGameSection(svg, layout, data.games());
+        }
+
+        return svg.append("</svg>").toString();
+    }
+
+    private void appendGameSection(StringBuilder svg, @NotNull WidgetLayout layout, @NotNull List<WidgetGame> games) {
+        Box separator = layout.separator();
+        if (separator == null) {
+            return;
+        }
+
+        svg.append("<rect x=\"").append(separator.x()).append("\" y=\"").append(separator.y()).append("\" width=\"").append(separator.width())
+                .append("\" height=\"").append(separator.height()).append("\" rx=\"").append(separator.arc() / 2.0).append("\" fill=\"#ffffff\"/>");
+
+        for (int i = 0; i < games.size(); i++) {
+            WidgetGame game = games.get(i);
+            GameRow row = layout.rows().get(i);
+            appendCircleImage(svg, "game" + i, game.iconUrl(), row.icon());
+
+            if (game.playtime2weeks() != null) {
+                appendText(svg, row.recentPlaytime(), "Recent Playtime: " + game.playtime2weeks() / 60 + "h " + game.playtime2weeks() % 60 + "m");
+            }
+            appendText(svg, row.name(), game.name());
+            appendText(svg, row.totalPlaytime(), "Total Playtime: " + game.playtimeForever() / 60 + "h " + game.playtimeForever() % 60 + "m");
+        }
+    }
+
+    private void appendCircleImage(StringBuilder svg, String id, String url, @NotNull Box slot) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+
+        double radius = slot.width() / 2.0;
+        svg.append("<clipPath id=\"").append(id).append("\"><circle cx=\"").append(slot.x() + radius).append("\" cy=\"").append(slot.y() + radius)
+                .append("\" r=\"").append(radius).append("\"/></clipPath>");
+        svg.append("<image x=\"").append(slot.x()).append("\" y=\"").append(slot.y()).append("\" width=\"").append(slot.width()).append("\" height=\"").append(slot.height())
+                .append("\" preserveAspectRatio=\"none\" clip-path=\"url(#").append(id).append(")\" href=\"").append(escape(url))
+                .append("\" xlink:href=\"").append(escape(url)).append("\"/>");
+    }
+
+    private void appendText(StringBuilder svg, @NotNull TextRun run, String text) {
+        svg.append("<text x=\"").append(run.x()).append("\" y=\"").append(run.y()).append("\" ").append(FONT)
+                .append(" font-size=\"").append(run.size()).append('"')
+                .append((run.style() & Font.BOLD) != 0 ? " font-weight=\"bold\"" : "")
+                .append(" fill=\"").append(run.color()).append("\" xml:space=\"preserve\">")
+                .append(escape(text))
+                .append("</text>");
+    }
+
+    /**
+     * Escapes text for use in XML content and attribute values. Control characters, which XML does not allow, are dropped.
+     */
+    private String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '&' -> escaped.append("&amp;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> {
+                    if (c >= 0x20 || c == '\t') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Returns the color of the state dot, matching the raster widget.
+     */
+    private String stateColor(@NotNull WidgetData data) {
+        if (!data.currentGame().isEmpty()) {
+            return "#00ff00";
+        }
+        return switch (data.personaState()) {
+            case 3 -> "#ffff00";
+            case 2 -> "#ff0000";
+            case 1 -> "#00b7ff";
+            default -> "#898989";
+        };
+    }
+
+    /**
+     * Loads an SVG resource and returns everything between its root element tags.
+     *
+     * @param path The path to the resource within the resources folder.
+     * @return The inner markup, or an empty string if the resource could not be loaded.
+     */
+    private String loadSvgBody(String path) {
+        try (InputStream in = getClass().getResourceAsStream(path)) {
+            if (in == null) {
+                return "";
+            }
+            String svg = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int start = svg.indexOf('>', svg.indexOf("<svg")) + 1;
+            int end = svg.lastIndexOf("</svg>");
+            return start > 0 && end > start ? svg.substring(start, end).trim() : "";
+        } catch (IOException e) {
+            log.warn("Failed to load {}", path, e);
+            return "";
+        }
+    }
+
+}
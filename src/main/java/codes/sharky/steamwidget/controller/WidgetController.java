@@ -1,20 +1,22 @@
 package codes.sharky.steamwidget.controller;
 
 import com.lukaspradel.steamapi.core.exception.SteamApiException;
+import codes.sharky.steamwidget.model.RenderedWidget;
 import codes.sharky.steamwidget.model.ShowedGames;
+import codes.sharky.steamwidget.model.WidgetFormat;
 import codes.sharky.steamwidget.service.SteamWidgetService;
+import codes.sharky.steamwidget.utils.IPUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.ZoneId;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for handling requests related to Steam widgets.
@@ -23,6 +25,9 @@ import java.io.IOException;
 @Controller
 public class WidgetController {
 
+    /** Seconds a client should wait before retrying when all render slots are taken. */
+    private static final int RETRY_AFTER_SECONDS = 5;
+
     private final SteamWidgetService steamWidgetService;
 
     public WidgetController(SteamWidgetService steamWidgetService) {
@@ -31,7 +36,17 @@ public class WidgetController {
 
     /**
      * Handles requests to generate an image widget for a Steam user.
-     * Generates a BufferedImage for the user and returns it as a byte array in PNG format.
+     * Generates a BufferedImage for the user and writes it in the requested format straight to the response output stream.
+     * Identical requests within the widget cache TTL are served from memory instead of being rendered again.
+     * <p>
+     * The format is taken from the {@code format} parameter and defaults to PNG. Other formats are only served when
+     * requested explicitly, so caches in front of the widget never have to vary on the Accept header.
+     * <p>
+     * Every image carries an ETag fingerprinting the data it was rendered from. Revalidations with a matching
+     * {@code If-None-Match} are answered with 304, which on a cache miss only costs the data lookup and no render.
+     * <p>
+     * If the node is saturated with renders and no cached copy of the widget exists, 503 with Retry-After is returned.
+     * Negative widths are answered with 400.
      *
      * @param id              The Steam ID of the user for whom the widget image is being generated.
      * @param gameList        The type of games to be shown on the widget (e.g., top recent games, top total games, recent games).
@@ -39,40 +54,64 @@ public class WidgetController {
      * @param playingRightNow A boolean indicating whether to show the game the user is currently playing.
      * @param purpose         Optional parameter indicating the purpose of the widget request.
      * @param width           The width to which the generated image should be scaled.
+     * @param format          The output format (PNG, PNG8, WEBP or SVG).
      * @param request         The HttpServletRequest object, used here to get the client's IP address.
-     * @param response        The HttpServletResponse object, used here to set the cache control header.
-     * @return A byte array containing the PNG data of the generated widget image.
+     * @param response        The HttpServletResponse object the image and the cache control header are written to.
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
-     * @throws IOException       If there is an error during writing the image to the byte array output stream.
+     * @throws IOException       If there is an error during encoding or writing the image.
      */
-    @GetMapping(value = "/widget/img", produces = MediaType.IMAGE_PNG_VALUE)
-    public @ResponseBody byte[] getWidgetImage(
+    @GetMapping(value = "/widget/img")
+    public void getWidgetImage(
             @RequestParam(name = "id") String id,
             @RequestParam(name = "gameList", required = false, defaultValue = "NONE") ShowedGames gameList,
             @RequestParam(name = "gameListSize", required = false, defaultValue = "5") int gameListSize,
             @RequestParam(name = "playingRightNow", required = false, defaultValue = "true") boolean playingRightNow,
             @RequestParam(name = "purpose", required = false, defaultValue = "General") String purpose,
             @RequestParam(name = "width", required = false, defaultValue = "0") int width,
+            @RequestParam(name = "format", required = false, defaultValue = "PNG") WidgetFormat format,
             HttpServletRequest request,
             HttpServletResponse response
     ) throws SteamApiException, IOException {
         /* Always check that the gamesCount is not too high */
         gameListSize = gameListSize > 10 ? 10 : gameListSize;
-
-        /* Generate Image */
-        BufferedImage image = steamWidgetService.generateWidgetImage(id, gameList, gameListSize, playingRightNow, purpose, request);
-        if (width > 0) {
-            image = steamWidgetService.scaleImage(image, width);
+        /* The layout is 3500px wide, larger widths would only allocate bigger canvases */
+        width = width > 3500 ? 3500 : width;
+        if (width < 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "width must not be negative");
+            return;
         }
 
-        ByteArrayOutputStream imageByteStream = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", imageByteStream);
-        byte[] imageBytes = imageByteStream.toByteArray();
+        /* Generate Image, or take it from the widget cache */
+        RenderedWidget widget;
+        try {
+            widget = steamWidgetService.getWidget(id, gameList, gameListSize, playingRightNow, width, format,
+                    request.getHeader(HttpHeaders.IF_NONE_MATCH), purpose, IPUtils.getIPAddress(request));
+        } catch (RejectedExecutionException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
 
         /* Set Cache Control, so the image will be refreshed if it's behind a cache */
         response.addHeader("Cache-Control", "max-age=60, must-revalidate");
 
-        return imageBytes;
+        /* A widget without image was only fingerprinted, because the client's copy already matched */
+        if (widget.image() == null) {
+            response.setHeader(HttpHeaders.ETAG, widget.etag());
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        /* Answer revalidations of cached widgets with 304, otherwise this sets the ETag and Last-Modified headers */
+        long lastModified = widget.renderedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (new ServletWebRequest(request, response).checkNotModified(widget.etag(), lastModified)) {
+            return;
+        }
+
+        /* Write the encoded bytes directly, the cached buffer is never copied */
+        response.setContentType(format.getMediaType());
+        response.setContentLength(widget.image().length);
+        response.getOutputStream().write(widget.image());
     }
 
 }
\ No newline at end of file
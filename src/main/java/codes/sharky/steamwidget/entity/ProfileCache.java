@@ -27,6 +27,12 @@ public class ProfileCache {
     @Column(name = "lastpersonastate")
     private Integer lastpersonastate;
 
+    @Column(name = "personaname")
+    private String personaname;
+
+    @Column(name = "avatarurl")
+    private String avatarurl;
+
     @Column(name = "lastupdate", nullable = false)
     private LocalDateTime lastupdate;
 
@@ -0,0 +1,28 @@
+package codes.sharky.steamwidget.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "vanity_resolution")
+public class VanityResolution {
+    @Id
+    @Column(name = "vanityname", nullable = false)
+    private String vanityname;
+
+    @Column(name = "steam64id", nullable = false)
+    private String steam64id;
+
+    @Column(name = "lastverified", nullable = false)
+    private LocalDateTime lastverified;
+
+}
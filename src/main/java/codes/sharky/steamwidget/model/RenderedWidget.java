@@ -0,0 +1,35 @@
+package codes.sharky.steamwidget.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * An encoded widget image together with the profile data needed to record hits when it is served from cache.
+ *
+ * @param image       the encoded image bytes, null if the image was not rendered because the client's copy is current
+ * @param steamId     Steam64 ID of the rendered profile, empty if the profile could not be resolved
+ * @param personaName persona name of the rendered profile
+ * @param etag        quoted entity tag fingerprinting everything the image was rendered from
+ * @param renderedAt  the time the image was rendered, served as its last modification time
+ * @param validatedAt the time the data the image was rendered from was last confirmed current, which its freshness is
+ *                    measured from
+ */
+public record RenderedWidget(byte[] image, String steamId, String personaName, String etag, LocalDateTime renderedAt,
+                             LocalDateTime validatedAt) {
+
+    /**
+     * Creates a widget that was validated when it was rendered.
+     */
+    public RenderedWidget(byte[] image, String steamId, String personaName, String etag, LocalDateTime renderedAt) {
+        this(image, steamId, personaName, etag, renderedAt, renderedAt);
+    }
+
+    /**
+     * Returns a copy of this widget that counts as validated now, for when a refresh found the data unchanged. The
+     * render time is kept, as the image did not change.
+     *
+     * @return the revalidated widget sharing the same image
+     */
+    public RenderedWidget revalidated() {
+        return new RenderedWidget(image, steamId, personaName, etag, renderedAt, LocalDateTime.now());
+    }
+}
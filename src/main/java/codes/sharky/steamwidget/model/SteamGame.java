@@ -0,0 +1,16 @@
+package codes.sharky.steamwidget.model;
+
+/**
+ * The parts of an owned or recently played Steam game the application uses, independent of the transport it was
+ * retrieved with.
+ *
+ * @param appId           Steam application ID of the game
+ * @param name            display name of the game
+ * @param playtimeForever total playtime in minutes
+ * @param playtime2weeks  playtime in the last two weeks in minutes, or null if Steam did not report it
+ * @param imgIconUrl      hash of the game icon
+ * @param imgLogoUrl      hash of the game logo
+ * @param lastPlayed      time the game was last played in epoch seconds, 0 if unknown
+ */
+public record SteamGame(long appId, String name, long playtimeForever, Long playtime2weeks, String imgIconUrl, String imgLogoUrl, long lastPlayed) {
+}
@@ -0,0 +1,17 @@
+package codes.sharky.steamwidget.model;
+
+/**
+ * The parts of a Steam player summary the application uses, independent of the transport it was retrieved with.
+ *
+ * @param steamId       Steam64 ID of the player, null for the empty player
+ * @param personaName   display name of the player
+ * @param personaState  Steam persona state, 0 is offline
+ * @param avatarFull    URL of the full size avatar
+ * @param gameExtraInfo name of the game the player is currently playing, or null if none
+ */
+public record SteamPlayer(String steamId, String personaName, int personaState, String avatarFull, String gameExtraInfo) {
+
+    /** Stands in for a player that could not be retrieved. */
+    public static final SteamPlayer EMPTY = new SteamPlayer(null, null, 0, null, null);
+
+}
@@ -0,0 +1,17 @@
+package codes.sharky.steamwidget.model;
+
+import java.util.List;
+
+/**
+ * All profile data a widget is rendered from. Collecting it up front lets the renderer know every remote
+ * image it needs before drawing starts.
+ *
+ * @param steamId      Steam64 ID of the profile, empty if the profile could not be resolved
+ * @param personaName  persona name of the profile
+ * @param avatarUrl    URL of the full-size avatar
+ * @param personaState Steam persona state (0 offline, 1 online, 2 busy, 3 away, ...)
+ * @param currentGame  name of the game currently played, empty if none
+ * @param games        games shown in the game section
+ */
+public record WidgetData(String steamId, String personaName, String avatarUrl, int personaState, String currentGame, List<WidgetGame> games) {
+}
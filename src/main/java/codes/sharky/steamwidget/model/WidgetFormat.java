@@ -0,0 +1,27 @@
+package codes.sharky.steamwidget.model;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the widget image.
+ */
+public enum WidgetFormat {
+    /** Full-color ARGB PNG, the default. */
+    PNG(MediaType.IMAGE_PNG_VALUE),
+    /** PNG with an 8-bit palette. */
+    PNG8(MediaType.IMAGE_PNG_VALUE),
+    /** Lossless WebP. */
+    WEBP("image/webp"),
+    /** Vector SVG which references the avatar and game icons by URL. */
+    SVG("image/svg+xml");
+
+    private final String mediaType;
+
+    WidgetFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,13 @@
+package codes.sharky.steamwidget.model;
+
+/**
+ * A single game row shown on a widget, independent of the Steam API call it was retrieved with.
+ *
+ * @param appId           Steam application ID of the game
+ * @param name            display name of the game
+ * @param iconUrl         URL of the game icon
+ * @param playtimeForever total playtime in minutes
+ * @param playtime2weeks  playtime in the last two weeks in minutes, or null if Steam did not report it
+ */
+public record WidgetGame(long appId, String name, String iconUrl, long playtimeForever, Long playtime2weeks) {
+}
@@ -0,0 +1,57 @@
+package codes.sharky.steamwidget.model;
+
+import java.util.List;
+
+/**
+ * Positions of every element of a widget in layout units, independent of the data shown and of the output format.
+ * A layout only depends on the shape of the widget, so it is computed once per shape and shared by all renders.
+ *
+ * @param width        width of the layout
+ * @param height       height of the layout
+ * @param logo         slot of the Steam logo
+ * @param avatar       slot of the avatar
+ * @param personaName  text run of the persona name
+ * @param currentGame  text run of the currently played game, null if the shape has no current game line
+ * @param stateDot     bounds of the online state dot
+ * @param separator    separator between header and game rows, null if there are no rows
+ * @param rows         the game rows, top to bottom
+ */
+public record WidgetLayout(int width, int height, Box logo, Box avatar, TextRun personaName, TextRun currentGame,
+                           Box stateDot, Box separator, List<GameRow> rows) {
+
+    /**
+     * A rectangular slot.
+     *
+     * @param x      left edge
+     * @param y      top edge
+     * @param width  width of the slot
+     * @param height height of the slot
+     * @param arc    corner arc diameter, 0 for square corners
+     */
+    public record Box(int x, int y, int width, int height, int arc) {
+    }
+
+    /**
+     * Style and baseline position of a single line of text.
+     *
+     * @param font  font name
+     * @param style font style (e.g., Font.BOLD)
+     * @param size  font size
+     * @param color text color in hexadecimal format
+     * @param x     start of the baseline
+     * @param y     baseline
+     */
+    public record TextRun(String font, int style, int size, String color, int x, int y) {
+    }
+
+    /**
+     * The elements of one game row.
+     *
+     * @param icon           slot of the game icon
+     * @param name           text run of the game name
+     * @param totalPlaytime  text run of the total playtime
+     * @param recentPlaytime text run of the playtime of the last two weeks
+     */
+    public record GameRow(Box icon, TextRun name, TextRun totalPlaytime, TextRun recentPlaytime) {
+    }
+}
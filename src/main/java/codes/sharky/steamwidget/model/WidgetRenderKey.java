@@ -0,0 +1,15 @@
+package codes.sharky.steamwidget.model;
+
+/**
+ * Identifies one rendered variant of a widget image.
+ * Two requests with equal keys produce byte-identical images as long as the underlying Steam data is unchanged.
+ *
+ * @param steamId         resolved Steam64 ID of the profile
+ * @param gameList        the type of games shown on the widget
+ * @param gameListSize    the number of games shown on the widget
+ * @param playingRightNow whether the currently played game is shown
+ * @param width           output width in pixels, 0 for the original size
+ * @param format          output format of the image
+ */
+public record WidgetRenderKey(String steamId, ShowedGames gameList, int gameListSize, boolean playingRightNow, int width, WidgetFormat format) {
+}
@@ -0,0 +1,13 @@
+package codes.sharky.steamwidget.repository;
+
+import codes.sharky.steamwidget.entity.VanityResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface VanityResolutionRepository extends JpaRepository<VanityResolution, String> {
+
+    Optional<VanityResolution> findByVanitynameAndLastverifiedAfter(String vanityname, LocalDateTime lastverified);
+
+}
@@ -1,47 +1,89 @@
 package codes.sharky.steamwidget.scheduled;
 
+import codes.sharky.steamwidget.component.SteamApiRateLimiter;
 import codes.sharky.steamwidget.repository.ProfileCacheRepository;
 import codes.sharky.steamwidget.service.ProfileCachingService;
+import codes.sharky.steamwidget.service.RemoteImageService;
+import codes.sharky.steamwidget.service.SteamWidgetService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
- * Scheduled tasks that refresh and prune profile caches for the primary profile.
+ * Scheduled tasks that refresh and prune profile caches for the primary profile, and pre-render hot widgets.
  */
 @Component
 @EnableScheduling
 @Slf4j
 public class ScheduledCaching {
 
+    /** Widgets that would stop being fresh before the next pre-render run (plus a margin) are rendered again. */
+    private static final Duration PRE_RENDER_LEAD = Duration.ofSeconds(25);
+
     private final ProfileCachingService profileCachingService;
+    private final SteamWidgetService steamWidgetService;
+    private final RemoteImageService remoteImageService;
     private final Environment env;
+    private final int preRenderTopN;
 
     /**
      * Creates the scheduler with caching service and environment to gate execution by profile.
      *
      * @param profileCachingService service used to refresh and deactivate caches
+     * @param steamWidgetService    service used to pre-render hot widgets
+     * @param remoteImageService    service whose on-disk image cache is swept
      * @param env                   environment used to check active profiles
+     * @param preRenderTopN         number of most requested widgets kept pre-rendered, 0 disables pre-rendering
      */
-    public ScheduledCaching(ProfileCachingService profileCachingService, Environment env) {
+    public ScheduledCaching(ProfileCachingService profileCachingService, SteamWidgetService steamWidgetService,
+                            RemoteImageService remoteImageService, Environment env,
+                            @Value("${widget.prerender.top-n:100}") int preRenderTopN) {
         this.profileCachingService = profileCachingService;
+        this.steamWidgetService = steamWidgetService;
+        this.remoteImageService = remoteImageService;
         this.env = env;
+        this.preRenderTopN = preRenderTopN;
     }
 
     /**
-     * Refreshes active profile caches every minute at second 50 when running in the primary profile.
+     * Refreshes active profile caches every minute at second 50 when running in the primary profile, with background
+     * priority for its Steam Web API calls.
      */
     @Scheduled(cron = "50 * * * * *")
     public void caching() {
         if (env.acceptsProfiles(Profiles.of("primary"))) {
             log.debug("Updating active profile caches");
-            profileCachingService.updateActiveProfileCaches();
+            SteamApiRateLimiter.runWithPriority(SteamApiRateLimiter.Priority.BACKGROUND, profileCachingService::updateActiveProfileCaches);
         }
     }
 
+    /**
+     * Re-renders the most requested widgets before they expire, every 20 seconds. The widget cache is local to each
+     * node, so this runs on every node and not only in the primary profile. The refreshes run with background priority
+     * for their Steam Web API calls.
+     */
+    @Scheduled(cron = "5/20 * * * * *")
+    public void preRenderHotWidgets() {
+        /* Runs even when disabled, ranking also resets the request counters */
+        int started = steamWidgetService.preRenderHotWidgets(Math.max(0, preRenderTopN), PRE_RENDER_LEAD);
+        log.debug("Started pre-rendering {} hot widgets", started);
+    }
+
+    /**
+     * Prunes the on-disk tier of the remote image cache every hour. The tier is local to each node, so this runs on every
+     * node.
+     */
+    @Scheduled(cron = "0 30 * * * *")
+    public void sweepImageCache() {
+        remoteImageService.sweepDiskCache();
+    }
+
     /**
      * Deactivates stale caches at the top of every hour when running in the primary profile.
      */
@@ -1,5 +1,6 @@
 package codes.sharky.steamwidget.scheduled;
 
+import codes.sharky.steamwidget.component.SteamApiRateLimiter;
 import codes.sharky.steamwidget.service.SteamTrackerService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.env.Environment;
@@ -31,13 +32,14 @@ public class ScheduledTracking {
     }
 
     /**
-     * Runs tracking each hour on the hour when the application is running under the "primary" profile.
+     * Runs tracking each hour on the hour when the application is running under the "primary" profile. Its Steam Web API
+     * calls run with background priority, so they cannot starve live widget requests.
      */
     @Scheduled(cron = "0 0 * * * *")
     public void scheduledTracking() {
         if (env.acceptsProfiles(Profiles.of("primary"))) {
             log.debug("Starting scheduled tracking of registered users.");
-            steamTrackerService.trackRegisteredUsers();
+            SteamApiRateLimiter.runWithPriority(SteamApiRateLimiter.Priority.BACKGROUND, steamTrackerService::trackRegisteredUsers);
         }
     }
 
@@ -1,7 +1,7 @@
 package codes.sharky.steamwidget.service;
 
 import codes.sharky.steamwidget.entity.PlayingTracker;
-import com.lukaspradel.steamapi.data.json.ownedgames.Game;
+import codes.sharky.steamwidget.model.SteamGame;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
@@ -26,18 +26,18 @@ public class AsyncTrackerService {
      * @param init    when true, seeds tracker without calculating deltas
      */
     @Async("trackerExecutor")
-    public void saveGameTrackerAsync(String steamId, Game game, boolean init) {
+    public void saveGameTrackerAsync(String steamId, SteamGame game, boolean init) {
         try {
             // Reuse existing logic from SteamTrackerService.saveGameTracker
-            var trackerOpt = profileService.getLastPlayingTracker(steamId, game.getAppid().toString());
-            if (trackerOpt.isEmpty() || trackerOpt.get().getTotalPlayingTime() < game.getPlaytimeForever()) {
-                long newPlaytime = init ? 0L : trackerOpt.map(playingTracker -> game.getPlaytimeForever() - playingTracker.getTotalPlayingTime()).orElseGet(game::getPlaytimeForever);
-                log.info("[async] User {} played {} for {} minutes.", steamId, game.getName(), newPlaytime);
-                PlayingTracker newTracker = new PlayingTracker(steamId, game.getAppid().toString(), game.getName(), newPlaytime, game.getPlaytimeForever());
+            var trackerOpt = profileService.getLastPlayingTracker(steamId, String.valueOf(game.appId()));
+            if (trackerOpt.isEmpty() || trackerOpt.get().getTotalPlayingTime() < game.playtimeForever()) {
+                long newPlaytime = init ? 0L : trackerOpt.map(playingTracker -> game.playtimeForever() - playingTracker.getTotalPlayingTime()).orElseGet(game::playtimeForever);
+                log.info("[async] User {} played {} for {} minutes.", steamId, game.name(), newPlaytime);
+                PlayingTracker newTracker = new PlayingTracker(steamId, String.valueOf(game.appId()), game.name(), newPlaytime, game.playtimeForever());
                 profileService.savePlayingTracker(newTracker);
             }
         } catch (Exception exception) {
-            log.error("[async] Failed to track playtime for user {}, game {}", steamId, game.getAppid(), exception);
+            log.error("[async] Failed to track playtime for user {}, game {}", steamId, game.appId(), exception);
         }
     }
 }
@@ -0,0 +1,232 @@
+package codes.sharky.steamwidget.service;
+
+import codes.sharky.steamwidget.entity.Hit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for widget hits.
+ * <p>
+ * Hits are put into a bounded ring buffer and written by a single flusher thread, either every flush interval or as
+ * soon as a full batch is waiting. A flush writes all of its hits with one multi-row {@code INSERT} into {@code hits} and
+ * adds them to the hit counts of their profiles with one upsert per profile, in a single transaction. Hit counts are
+ * therefore up to one flush interval behind. When the buffer is full, further hits are dropped and counted until it
+ * drains again.
+ * <p>
+ * A batch that fails to be written is retried once with the next flush. If it fails again, its hits are written one
+ * by one, each in its own transaction, so a row the database rejects only loses itself. Hits that fail on their own
+ * are logged as lost and dropped, so a longer database outage loses the hits received during it. IP addresses that do
+ * not fit the {@code ip} column, such as most IPv6 addresses, are stored as null.
+ */
+@Service
+@Slf4j
+public class HitIngestionService {
+
+    /** Parameters per row of the multi-row hit insert. */
+    private static final int HIT_COLUMNS = 4;
+
+    /** Length of the {@code hits.ip} column, see {@link Hit}. */
+    private static final int MAX_IP_LENGTH = 15;
+
+    private static final String INSERT_HITS = "INSERT INTO hits (steam64id, datetime, purpose, ip) VALUES ";
+
+    private static final String UPSERT_PROFILE_HITS = "INSERT INTO profile (steam64id, name, hits, tracking, caching) VALUES (?, ?, ?, false, false) "
+            + "ON CONFLICT (steam64id) DO UPDATE SET hits = COALESCE(profile.hits, 0) + EXCLUDED.hits, name = EXCLUDED.name";
+
+    /**
+     * A hit waiting to be written, with the profile name its profile is updated with.
+     */
+    private record PendingHit(Hit hit, String name) {}
+
+    private record HitCount(String name, long hits) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingHit> buffer;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final AtomicLong droppedHits = new AtomicLong();
+
+    /** Batches whose first write failed, retried with the next flush. Only used by the flusher thread. */
+    private final List<List<PendingHit>> failedBatches = new ArrayList<>();
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates the service and starts its flusher thread.
+     *
+     * @param jdbcTemplate        template the batches are written with
+     * @param transactionManager  transaction manager each batch is written with
+     * @param bufferCapacity      maximum number of hits waiting to be written
+     * @param batchSize           number of waiting hits that triggers a flush before the interval elapses, and the
+     *                            maximum number of hits written per statement
+     * @param flushIntervalMs     milliseconds between flushes
+     */
+    public HitIngestionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${hit.ingest.buffer-capacity:20000}") int bufferCapacity,
+                               @Value("${hit.ingest.batch-size:500}") int batchSize,
+                               @Value("${hit.ingest.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferCapacity));
+        /* PostgreSQL accepts at most 65535 parameters per statement */
+        this.batchSize = Math.clamp(batchSize, 1, 65535 / HIT_COLUMNS);
+        this.flushInterval = Duration.ofMillis(Math.max(1, flushIntervalMs));
+        this.flusher = Thread.ofPlatform().name("hit-flusher").daemon().start(this::runFlusher);
+    }
+
+    /**
+     * Stops the flusher thread once it has written the hits still in the buffer.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Buffers a hit to be written with the next flush. Never blocks; if the buffer is full the hit is dropped.
+     *
+     * @param steamId       The Steam ID of the user for whom the hit is being recorded.
+     * @param name          The name of the user associated with the Steam ID.
+     * @param purpose       The reason for the hit, describing why the user's information was accessed.
+     * @param ip            The IP address from which the request to access the user's information originated, stored as
+     *                      null if it is longer than the column allows.
+     * @param localDateTime The timestamp when the hit occurred.
+     */
+    public void addHit(String steamId, String name, String purpose, String ip, LocalDateTime localDateTime) {
+        /* A cut off IPv6 address would be misleading, and one that is too long would fail the whole batch */
+        String storedIp = ip != null && ip.length() > MAX_IP_LENGTH ? null : ip;
+        if (!buffer.offer(new PendingHit(new Hit(steamId, localDateTime, purpose, storedIp), name))) {
+            droppedHits.incrementAndGet();
+            LockSupport.unpark(flusher);
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Flushes the buffer every flush interval, or earlier when woken up by a full batch, until the service is shut down.
+     * The buffer is flushed a last time on the way out.
+     */
+    private void runFlusher() {
+        while (running) {
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+            flush();
+        }
+        flush();
+    }
+
+    /**
+     * Retries the batches that failed during the previous flush, falling back to single rows for batches that fail
+     * again, then writes all buffered hits, in batches of at most the batch size.
+     */
+    private void flush() {
+        long dropped = droppedHits.getAndSet(0);
+        if (dropped > 0) {
+            log.warn("Hit buffer was full, dropped {} hits", dropped);
+        }
+
+        List<List<PendingHit>> retries = List.copyOf(failedBatches);
+        failedBatches.clear();
+        for (List<PendingHit> batch : retries) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (Exception e) {
+                log.warn("Failed to write {} hits again, writing them one by one", batch.size(), e);
+                writeEach(batch);
+            }
+        }
+
+        List<PendingHit> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (Exception e) {
+                log.warn("Failed to write {} hits, retrying with the next flush", batch.size(), e);
+                failedBatches.add(List.copyOf(batch));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes each hit of a batch in its own transaction and drops the hits that still fail.
+     *
+     * @param batch the hits
+     */
+    private void writeEach(List<PendingHit> batch) {
+        int lost = 0;
+        Exception lastFailure = null;
+        for (PendingHit hit : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(hit)));
+            } catch (Exception e) {
+                lost++;
+                lastFailure = e;
+            }
+        }
+        if (lost > 0) {
+            log.error("Failed to write {} of {} hits one by one, dropping them", lost, batch.size(), lastFailure);
+        }
+    }
+
+    /**
+     * Inserts a batch of hits with a single statement and adds them to the hit counts of their profiles, creating
+     * profiles that do not exist yet.
+     *
+     * @param batch the hits, at most the batch size
+     */
+    private void write(List<PendingHit> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_HITS.length() + batch.size() * 16).append(INSERT_HITS);
+        Object[] args = new Object[batch.size() * HIT_COLUMNS];
+        /* Profiles are updated in key order, so concurrent updates of the same profiles cannot deadlock */
+        Map<String, HitCount> counts = new TreeMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Hit hit = batch.get(i).hit();
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args[i * HIT_COLUMNS] = hit.getSteam64id();
+            args[i * HIT_COLUMNS + 1] = Timestamp.valueOf(hit.getDatetime());
+            args[i * HIT_COLUMNS + 2] = hit.getPurpose();
+            args[i * HIT_COLUMNS + 3] = hit.getIp();
+            /* The latest name of a profile wins, as it did when every hit updated it */
+            counts.merge(hit.getSteam64id(), new HitCount(batch.get(i).name(), 1),
+                    (previous, next) -> new HitCount(next.name(), previous.hits() + 1));
+        }
+        jdbcTemplate.update(sql.toString(), args);
+
+        List<Object[]> profileArgs = new ArrayList<>(counts.size());
+        counts.forEach((steamId, count) -> profileArgs.add(new Object[]{steamId, count.name(), count.hits()}));
+        jdbcTemplate.batchUpdate(UPSERT_PROFILE_HITS, profileArgs);
+    }
+
+}
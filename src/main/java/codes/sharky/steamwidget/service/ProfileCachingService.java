@@ -3,17 +3,23 @@ package codes.sharky.steamwidget.service;
 import codes.sharky.steamwidget.entity.Profile;
 import codes.sharky.steamwidget.entity.ProfileCache;
 import codes.sharky.steamwidget.model.BooleanResultResponse;
+import codes.sharky.steamwidget.model.SteamPlayer;
 import codes.sharky.steamwidget.repository.ProfileCacheRepository;
-import com.lukaspradel.steamapi.data.json.playersummaries.Player;
+import com.google.common.base.Strings;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +33,7 @@ public class ProfileCachingService {
     private final SteamWebAPIService steamWebAPIService;
     private final ProfileCacheRepository profileCacheRepository;
     private final ProfileService profileService;
+    private final Duration maxAge;
 
     /**
      * Creates a caching service with dependencies for Steam API access, cache persistence, and profile metadata.
@@ -34,11 +41,14 @@ public class ProfileCachingService {
      * @param steamWebAPIService      client for Steam Web API user lookups
      * @param profileCacheRepository  repository for profile cache entities
      * @param profileService          profile service used to toggle caching flags
+     * @param maxAgeSeconds           seconds a refreshed profile cache may be used instead of a live Steam lookup, 0 disables this
      */
-    public ProfileCachingService(SteamWebAPIService steamWebAPIService, ProfileCacheRepository profileCacheRepository, ProfileService profileService) {
+    public ProfileCachingService(SteamWebAPIService steamWebAPIService, ProfileCacheRepository profileCacheRepository, ProfileService profileService,
+                                 @Value("${profile.cache.max-age-seconds:90}") long maxAgeSeconds) {
         this.steamWebAPIService = steamWebAPIService;
         this.profileCacheRepository = profileCacheRepository;
         this.profileService = profileService;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
     }
 
     /**
@@ -47,15 +57,15 @@ public class ProfileCachingService {
      * @param player Steam player data used to set the caching flag
      * @return true if registration succeeds or was already active; false on error
      */
-    public boolean registerUser(@NotNull Player player) {
+    public boolean registerUser(@NotNull SteamPlayer player) {
         try {
-            if (profileService.profileCachingActive(player.getSteamid())) {
+            if (profileService.profileCachingActive(player.steamId())) {
                 return true;
             }
-            profileService.upsertProfileCaching(player.getSteamid(), player.getPersonaname(), true);
+            profileService.upsertProfileCaching(player.steamId(), player.personaName(), true);
             return true;
         } catch (Exception e) {
-            log.error("Failed to register user for caching: " + player.getSteamid(), e);
+            log.error("Failed to register user for caching: " + player.steamId(), e);
             return false;
         }
     }
@@ -66,15 +76,15 @@ public class ProfileCachingService {
      * @param player Steam player data used to clear the caching flag
      * @return true if unregistration succeeds or was already inactive; false on error
      */
-    public boolean unregisterUser(@NotNull Player player) {
+    public boolean unregisterUser(@NotNull SteamPlayer player) {
         try {
-            if (!profileService.profileCachingActive(player.getSteamid())) {
+            if (!profileService.profileCachingActive(player.steamId())) {
                 return true;
             }
-            profileService.upsertProfileCaching(player.getSteamid(), player.getPersonaname(), false);
+            profileService.upsertProfileCaching(player.steamId(), player.personaName(), false);
             return true;
         } catch (Exception e) {
-            log.error("Failed to unregister user from caching: " + player.getSteamid(), e);
+            log.error("Failed to unregister user from caching: " + player.steamId(), e);
             return false;
         }
     }
@@ -86,9 +96,9 @@ public class ProfileCachingService {
      * @return result indicating the Steam ID and whether the operation succeeded
      */
     public BooleanResultResponse enableCaching(String steamId) {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
         boolean enabled = this.registerUser(player);
-        return new BooleanResultResponse(player.getSteamid(), enabled);
+        return new BooleanResultResponse(player.steamId(), enabled);
     }
 
     /**
@@ -98,9 +108,9 @@ public class ProfileCachingService {
      * @return result indicating the Steam ID and whether the operation succeeded
      */
     public BooleanResultResponse disableCaching(String steamId) {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
         boolean enabled = this.unregisterUser(player);
-        return new BooleanResultResponse(player.getSteamid(), enabled);
+        return new BooleanResultResponse(player.steamId(), enabled);
     }
 
     /**
@@ -153,20 +163,39 @@ public class ProfileCachingService {
     }
 
     /**
-     * Refreshes cached data for all profiles with caching enabled by fetching current player data.
+     * Retrieves the cached profile for a Steam64 ID if it was refreshed recently enough to stand in for a live
+     * Steam lookup and contains everything a widget shows. No Steam ID resolution is done here.
+     *
+     * @param steam64Id Steam64 ID of the profile
+     * @return the fresh profile cache, or an empty optional if it is missing, stale or incomplete
+     */
+    public Optional<ProfileCache> getFreshProfileCache(String steam64Id) {
+        if (maxAge.isZero() || steam64Id == null || steam64Id.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime freshSince = LocalDateTime.now().minus(maxAge);
+        return profileCacheRepository.findBySteam64id(steam64Id)
+                .filter(cache -> cache.getLastupdate() != null && cache.getLastupdate().isAfter(freshSince))
+                .filter(cache -> cache.getPersonaname() != null && cache.getAvatarurl() != null && cache.getLastpersonastate() != null);
+    }
+
+    /**
+     * Refreshes cached data for all profiles with caching enabled by fetching current player data. Players are
+     * fetched in batches by the {@link SteamWebAPIService}, profiles whose batch failed keep their previous cache.
      */
     public void updateActiveProfileCaches() {
         List<Profile> activeProfiles = profileService.getProfilesWithCaching();
         if (activeProfiles.isEmpty()) return;
 
-        List<Player> players = steamWebAPIService.getUsersBySteamIds(
+        List<SteamPlayer> players = steamWebAPIService.getUsersBySteamIds(
             activeProfiles.stream().map(Profile::getSteam64id).collect(Collectors.toList())
         );
 
-        List<ProfileCache> caches = new ArrayList<>();
-        activeProfiles.forEach(profile -> players.stream()
-            .filter(player -> player.getSteamid().equals(profile.getSteam64id()))
-            .findFirst()
+        Map<String, SteamPlayer> playersById = players.stream()
+            .collect(Collectors.toMap(SteamPlayer::steamId, Function.identity(), (first, second) -> first));
+
+        List<ProfileCache> caches = new ArrayList<>(players.size());
+        activeProfiles.forEach(profile -> Optional.ofNullable(playersById.get(profile.getSteam64id()))
             .ifPresent(player -> {
                 ProfileCache cache = profile.getProfileCache();
                 if (cache == null)  {
@@ -175,8 +204,10 @@ public class ProfileCachingService {
                     cache.setLastrequest(LocalDateTime.now());
                 }
                 cache.setLastupdate(LocalDateTime.now());
-                cache.setLastgame(player.getAdditionalProperties().getOrDefault("gameextrainfo", "").toString());
-                cache.setLastpersonastate(Math.toIntExact(player.getPersonastate()));
+                cache.setLastgame(Strings.nullToEmpty(player.gameExtraInfo()));
+                cache.setLastpersonastate(player.personaState());
+                cache.setPersonaname(player.personaName());
+                cache.setAvatarurl(player.avatarFull());
                 caches.add(cache);
             }));
 
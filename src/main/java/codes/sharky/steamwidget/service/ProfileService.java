@@ -1,13 +1,11 @@
 package codes.sharky.steamwidget.service;
 
-import codes.sharky.steamwidget.entity.Hit;
 import codes.sharky.steamwidget.entity.PlayingTracker;
 import codes.sharky.steamwidget.entity.Profile;
 import codes.sharky.steamwidget.repository.HitRepository;
 import codes.sharky.steamwidget.repository.PlayingTrackerRepository;
 import codes.sharky.steamwidget.repository.ProfileRepository;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,11 +18,14 @@ public class ProfileService {
     private final ProfileRepository repository;
     private final HitRepository hitRepository;
     private final PlayingTrackerRepository playingTrackerRepository;
+    private final HitIngestionService hitIngestionService;
 
-    public ProfileService(ProfileRepository repository, HitRepository hitRepository, PlayingTrackerRepository playingTrackerRepository) {
+    public ProfileService(ProfileRepository repository, HitRepository hitRepository, PlayingTrackerRepository playingTrackerRepository,
+                          HitIngestionService hitIngestionService) {
         this.repository = repository;
         this.hitRepository = hitRepository;
         this.playingTrackerRepository = playingTrackerRepository;
+        this.hitIngestionService = hitIngestionService;
     }
 
     /**
@@ -54,9 +55,10 @@ public class ProfileService {
     }
 
     /**
-     * Asynchronously adds a hit to a profile identified by the Steam ID. If the profile does not exist, it creates a new profile
+     * Adds a hit to a profile identified by the Steam ID. If the profile does not exist, it creates a new profile
      * with the given Steam ID and name, initializing the hit count to 1. Otherwise, it increments the hit count for the existing profile.
      * Additionally, it records the hit details including the Steam ID, timestamp, purpose, and IP address in the Hit entity.
+     * The hit is buffered and written in a batch by the {@link HitIngestionService}, so this method returns right away.
      *
      * @param steamId       The Steam ID of the user for whom the hit is being recorded.
      * @param name          The name of the user associated with the Steam ID.
@@ -64,17 +66,8 @@ public class ProfileService {
      * @param ip            The IP address from which the request to access the user's information originated.
      * @param localDateTime The timestamp when the hit occurred.
      */
-    @Async
     public void addHitToProfile(String steamId, String name, String purpose, String ip, LocalDateTime localDateTime) {
-        if (!repository.existsById(steamId)) {
-            Profile profile = new Profile(steamId, name, 1L);
-            repository.save(profile);
-        } else {
-            repository.incrementHits(steamId, name);
-        }
-
-        Hit hit = new Hit(steamId, localDateTime, purpose, ip);
-        hitRepository.save(hit);
+        hitIngestionService.addHit(steamId, name, purpose, ip, localDateTime);
     }
 
     /**
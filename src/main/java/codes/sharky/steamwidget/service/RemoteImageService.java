@@ -0,0 +1,355 @@
+package codes.sharky.steamwidget.service;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Loads remote images such as avatars and game icons and keeps them decoded and pre-rounded in memory.
+ * <p>
+ * The in-memory tier is bounded by the total pixel bytes of the cached images and evicts the least recently used
+ * entries first. An optional on-disk tier keeps the raw downloaded bytes so a restart does not refetch every icon.
+ * Both tiers expire entries after the same TTL; the disk tier is swept periodically and bounded by its total size.
+ * URLs that could not be loaded are remembered for a short time, so a dead avatar or icon is not fetched again by
+ * every render.
+ * <p>
+ * Images missing from memory are fetched concurrently on virtual threads, limited to a fixed number of
+ * simultaneous downloads per host.
+ */
+@Service
+@Slf4j
+public class RemoteImageService {
+
+    /** Corner radius applied to all remote images, large enough to turn avatars and icons into circles. */
+    private static final int CORNER_RADIUS = 500;
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private static final int READ_TIMEOUT_MS = 5000;
+
+    private final Cache<String, BufferedImage> cache;
+
+    /** URLs whose last load failed, not fetched again until they expire. */
+    private final Cache<String, Boolean> failures;
+
+    private final Duration ttl;
+
+    private final Path diskCacheDirectory;
+
+    private final long diskMaxBytes;
+
+    private final int maxConnectionsPerHost;
+
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates the remote image cache.
+     *
+     * @param ttlHours     hours a downloaded image is reused before it is fetched again
+     * @param maxBytes     upper bound for the total pixel bytes of all images kept in memory
+     * @param failureTtlSeconds seconds a URL that could not be loaded is not requested again
+     * @param diskCacheDir directory for the on-disk tier; blank disables it
+     * @param diskMaxBytes upper bound for the total size of the on-disk tier
+     * @param maxConnectionsPerHost maximum number of concurrent downloads from a single host
+     */
+    public RemoteImageService(@Value("${widget.image.cache.ttl-hours:24}") long ttlHours,
+                              @Value("${widget.image.cache.max-bytes:33554432}") long maxBytes,
+                              @Value("${widget.image.cache.failure-ttl-seconds:300}") long failureTtlSeconds,
+                              @Value("${widget.image.cache.disk-dir:}") String diskCacheDir,
+                              @Value("${widget.image.cache.disk-max-bytes:268435456}") long diskMaxBytes,
+                              @Value("${widget.image.fetch.max-connections-per-host:8}") int maxConnectionsPerHost) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxBytes)
+                .weigher((String url, BufferedImage image) -> image.getWidth() * image.getHeight() * 4)
+                .build();
+        this.failures = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(failureTtlSeconds))
+                .maximumSize(10000)
+                .build();
+        this.diskCacheDirectory = Strings.isNullOrEmpty(diskCacheDir) ? null : Path.of(diskCacheDir);
+        this.diskMaxBytes = diskMaxBytes;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Returns the rounded images behind all given URLs. Images that are not in memory yet are loaded concurrently,
+     * so the call takes about as long as the slowest single download.
+     *
+     * @param urls the URLs of the images; duplicates and null entries are ignored
+     * @return the loaded images keyed by URL; URLs whose image could not be loaded are missing
+     */
+    public Map<String, BufferedImage> getRoundedImages(@NotNull Collection<String> urls) {
+        Map<String, BufferedImage> images = new HashMap<>();
+        Map<String, Future<Optional<BufferedImage>>> pending = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url == null || images.containsKey(url) || pending.containsKey(url)) {
+                continue;
+            }
+            BufferedImage cached = cache.getIfPresent(url);
+            if (cached != null) {
+                images.put(url, cached);
+            } else if (failures.getIfPresent(url) == null) {
+                pending.put(url, fetchExecutor.submit(() -> getRoundedImage(url)));
+            }
+        }
+
+        pending.forEach((url, future) -> {
+            try {
+                future.get().ifPresent(image -> images.put(url, image));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.warn("Failed to load image {}: {}", url, e.getMessage());
+            }
+        });
+        return images;
+    }
+
+    /**
+     * Returns the image behind the given URL with rounded corners, loading it on the first request.
+     *
+     * @param url the URL of the image
+     * @return the decoded and rounded image, or an empty optional if the image could not be loaded now or recently
+     */
+    public Optional<BufferedImage> getRoundedImage(String url) {
+        if (url == null || url.length() <= 5 || failures.getIfPresent(url) != null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(cache.get(url, () -> makeRoundedCorner(loadImage(url), CORNER_RADIUS)));
+        } catch (ExecutionException | RuntimeException e) {
+            log.warn("Failed to load image {}: {}", url, e.getMessage());
+            failures.put(url, Boolean.TRUE);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Creates a BufferedImage with rounded corners from the given image. This method is used to process
+     * images such as profile pictures to fit the widget's aesthetic.
+     *
+     * @param image        The original BufferedImage to be processed.
+     * @param cornerRadius The radius of the rounded corners.
+     * @return A new BufferedImage with rounded corners.
+     */
+    public BufferedImage makeRoundedCorner(BufferedImage image, int cornerRadius) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        BufferedImage output = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2 = output.createGraphics();
+
+        g2.setComposite(AlphaComposite.Src);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(Color.WHITE);
+        g2.fill(new RoundRectangle2D.Float(0, 0, w, h, cornerRadius, cornerRadius));
+
+        g2.setComposite(AlphaComposite.SrcAtop);
+        g2.drawImage(image, 0, 0, null);
+
+        g2.dispose();
+
+        return output;
+    }
+
+    /**
+     * Loads and decodes an image, preferring a fresh copy from the on-disk tier over a download.
+     *
+     * @param url the URL of the image
+     * @return the decoded image
+     * @throws Exception if the image could not be downloaded or decoded
+     */
+    private BufferedImage loadImage(@NotNull String url) throws Exception {
+        byte[] data = readFromDisk(url);
+        if (data == null) {
+            data = download(url);
+            writeToDisk(url, data);
+        }
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return image;
+    }
+
+    /**
+     * Downloads the raw bytes behind the given URL.
+     *
+     * @param url the URL to download
+     * @return the downloaded bytes
+     * @throws Exception if the URL is invalid or the download failed
+     */
+    private byte[] download(@NotNull String url) throws Exception {
+        URI uri = new URI(url);
+        Semaphore permits = hostPermits.computeIfAbsent(Objects.toString(uri.getHost(), ""), host -> new Semaphore(maxConnectionsPerHost));
+        permits.acquire();
+        try {
+            URLConnection connection = uri.toURL().openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            try (InputStream in = connection.getInputStream()) {
+                return in.readAllBytes();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Reads the raw image bytes from the on-disk tier if it is enabled and holds an unexpired copy.
+     *
+     * @param url the URL of the image
+     * @return the stored bytes, or null if there is no usable copy on disk
+     */
+    private byte[] readFromDisk(@NotNull String url) {
+        if (diskCacheDirectory == null) {
+            return null;
+        }
+
+        Path file = diskCacheFile(url);
+        try {
+            if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().plus(ttl).isAfter(Instant.now())) {
+                return Files.readAllBytes(file);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read cached image {}: {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Stores the raw image bytes in the on-disk tier if it is enabled. The file is written to a temporary
+     * location first, so concurrent readers never see a partially written image.
+     *
+     * @param url  the URL of the image
+     * @param data the downloaded bytes
+     */
+    private void writeToDisk(@NotNull String url, byte[] data) {
+        if (diskCacheDirectory == null) {
+            return;
+        }
+
+        Path file = diskCacheFile(url);
+        Path temp = null;
+        try {
+            Files.createDirectories(diskCacheDirectory);
+            temp = Files.createTempFile(diskCacheDirectory, "img", ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write cached image {}: {}", file, e.getMessage());
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Prunes the on-disk tier if it is enabled. Expired images and leftover temporary files are deleted first, then the
+     * oldest images until the tier fits its size bound.
+     */
+    public void sweepDiskCache() {
+        if (diskCacheDirectory == null || !Files.isDirectory(diskCacheDirectory)) {
+            return;
+        }
+
+        Instant expiredBefore = Instant.now().minus(ttl);
+        List<Path> kept = new ArrayList<>();
+        Map<Path, Instant> modified = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(diskCacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+                    if (lastModified.isBefore(expiredBefore)) {
+                        deleteQuietly(file);
+                    } else if (!file.getFileName().toString().endsWith(".tmp")) {
+                        long size = Files.size(file);
+                        kept.add(file);
+                        modified.put(file, lastModified);
+                        sizes.put(file, size);
+                        total += size;
+                    }
+                } catch (IOException e) {
+                    log.debug("Failed to inspect cached image {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to sweep image cache {}: {}", diskCacheDirectory, e.getMessage());
+            return;
+        }
+
+        kept.sort(Comparator.comparing(modified::get));
+        for (int i = 0; i < kept.size() && total > diskMaxBytes; i++) {
+            deleteQuietly(kept.get(i));
+            total -= sizes.get(kept.get(i));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete cached image {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the fetch executor when the application context shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private Path diskCacheFile(@NotNull String url) {
+        return diskCacheDirectory.resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString());
+    }
+
+}
@@ -1,9 +1,9 @@
 package codes.sharky.steamwidget.service;
 
 import codes.sharky.steamwidget.entity.PlayingTracker;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
 import com.lukaspradel.steamapi.core.exception.SteamApiException;
-import com.lukaspradel.steamapi.data.json.ownedgames.Game;
-import com.lukaspradel.steamapi.data.json.playersummaries.Player;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.scheduling.annotation.Async;
@@ -42,12 +42,12 @@ public class SteamTrackerService {
      *
      * @param player Steam player summary to register
      */
-    public void registerUser(@NotNull Player player) {
-        if (profileService.profileTrackingActive(player.getSteamid())) {
+    public void registerUser(@NotNull SteamPlayer player) {
+        if (profileService.profileTrackingActive(player.steamId())) {
             return;
         }
-        profileService.upsertProfileTracking(player.getSteamid(), player.getPersonaname(), true);
-        trackUserGames(player.getSteamid(), true);
+        profileService.upsertProfileTracking(player.steamId(), player.personaName(), true);
+        trackUserGames(player.steamId(), true);
     }
 
     /**
@@ -55,12 +55,12 @@ public class SteamTrackerService {
      *
      * @param player Steam player summary to unregister
      */
-    public void unregisterUser(@NotNull Player player) {
-        if (!profileService.profileTrackingActive(player.getSteamid())) {
+    public void unregisterUser(@NotNull SteamPlayer player) {
+        if (!profileService.profileTrackingActive(player.steamId())) {
             return;
         }
-        profileService.upsertProfileTracking(player.getSteamid(), player.getPersonaname(), false);
-        profileService.resetPlayerTrackers(player.getSteamid());
+        profileService.upsertProfileTracking(player.steamId(), player.personaName(), false);
+        profileService.resetPlayerTrackers(player.steamId());
     }
 
     /**
@@ -70,8 +70,8 @@ public class SteamTrackerService {
      */
     @Async
     public void toggleTracking(String steamId) {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
-        if (profileService.profileTrackingActive(player.getSteamid())) {
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
+        if (profileService.profileTrackingActive(player.steamId())) {
             this.unregisterUser(player);
         } else {
             this.registerUser(player);
@@ -84,7 +84,7 @@ public class SteamTrackerService {
      * @param steamId Steam ID to enable tracking for
      */
     public void enableTracking(String steamId) {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
         this.registerUser(player);
     }
 
@@ -94,7 +94,7 @@ public class SteamTrackerService {
      * @param steamId Steam ID to disable tracking for
      */
     public void disableTracking(String steamId) {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
         this.unregisterUser(player);
     }
 
@@ -125,17 +125,20 @@ public class SteamTrackerService {
     }
 
     /**
-     * Fetches recently played games for a Steam ID and delegates persistence to the async tracker.
+     * Fetches recently played games for a Steam ID and delegates persistence to the async tracker. The owned games
+     * snapshot is dropped afterwards, so widgets do not keep showing playtimes from before the tracking run.
      *
      * @param steamId Steam ID whose recent games to track
      * @param init    when true, seeds trackers without logging playtime deltas
      */
     private void trackUserGames(String steamId, boolean init) {
         try {
-            List<Game> games = steamWebAPIService.getRecentlyPlayedGames(steamId);
+            List<SteamGame> games = steamWebAPIService.getRecentlyPlayedGames(steamId);
             games.forEach(game -> asyncTrackerService.saveGameTrackerAsync(steamId, game, init));
         } catch (Exception exception) {
             log.error("Failed to track playtime for user {}", steamId, exception);
+        } finally {
+            steamWebAPIService.invalidateOwnedGames(steamId);
         }
     }
 
@@ -146,17 +149,17 @@ public class SteamTrackerService {
      * @param game    Steam game data containing playtime totals
      * @param init    when true, initializes tracker without calculating deltas
      */
-    private void saveGameTracker(String steamId, @NotNull Game game, boolean init) {
+    private void saveGameTracker(String steamId, @NotNull SteamGame game, boolean init) {
         try {
-            Optional<PlayingTracker> tracker = profileService.getLastPlayingTracker(steamId, game.getAppid().toString());
-            if (tracker.isEmpty() || tracker.get().getTotalPlayingTime() < game.getPlaytimeForever()) {
-                long newPlaytime = init ? 0L : tracker.map(playingTracker -> game.getPlaytimeForever() - playingTracker.getTotalPlayingTime()).orElseGet(game::getPlaytimeForever);
-                log.info("User {} played {} for {} minutes.", steamId, game.getName(), newPlaytime);
-                PlayingTracker newTracker = new PlayingTracker(steamId, game.getAppid().toString(), game.getName(), newPlaytime, game.getPlaytimeForever());
+            Optional<PlayingTracker> tracker = profileService.getLastPlayingTracker(steamId, String.valueOf(game.appId()));
+            if (tracker.isEmpty() || tracker.get().getTotalPlayingTime() < game.playtimeForever()) {
+                long newPlaytime = init ? 0L : tracker.map(playingTracker -> game.playtimeForever() - playingTracker.getTotalPlayingTime()).orElseGet(game::playtimeForever);
+                log.info("User {} played {} for {} minutes.", steamId, game.name(), newPlaytime);
+                PlayingTracker newTracker = new PlayingTracker(steamId, String.valueOf(game.appId()), game.name(), newPlaytime, game.playtimeForever());
                 profileService.savePlayingTracker(newTracker);
             }
         } catch (Exception exception) {
-            log.error("Failed to track playtime for user {}, game {}", steamId, game.getAppid(), exception);
+            log.error("Failed to track playtime for user {}, game {}", steamId, game.appId(), exception);
         }
     }
 }
\ No newline at end of file
@@ -1,21 +1,39 @@
 package codes.sharky.steamwidget.service;
 
+import codes.sharky.steamwidget.component.SteamApiCircuitBreaker;
+import codes.sharky.steamwidget.component.SteamApiRateLimiter;
+import codes.sharky.steamwidget.component.SteamApiTransport;
 import codes.sharky.steamwidget.component.SteamWebAPI;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import codes.sharky.steamwidget.utils.SteamIdParser;
+import codes.sharky.steamwidget.utils.TopGames;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.lukaspradel.steamapi.core.exception.SteamApiException;
-import com.lukaspradel.steamapi.data.json.ownedgames.GetOwnedGames;
-import com.lukaspradel.steamapi.data.json.playersummaries.GetPlayerSummaries;
-import com.lukaspradel.steamapi.data.json.playersummaries.Player;
-import com.lukaspradel.steamapi.data.json.recentlyplayedgames.GetRecentlyPlayedGames;
-import com.lukaspradel.steamapi.data.json.resolvevanityurl.ResolveVanityURL;
-import com.lukaspradel.steamapi.webapi.request.GetOwnedGamesRequest;
-import com.lukaspradel.steamapi.webapi.request.GetPlayerSummariesRequest;
-import com.lukaspradel.steamapi.webapi.request.GetRecentlyPlayedGamesRequest;
-import com.lukaspradel.steamapi.webapi.request.ResolveVanityUrlRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Slf4j
@@ -23,79 +41,258 @@ public class SteamWebAPIService {
 
     private final SteamWebAPI api;
 
-    public SteamWebAPIService(SteamWebAPI api) {
+    private final VanityResolutionService vanityResolutionService;
+
+    /** Player summaries keyed by Steam64 ID, shared by widgets, tracking and caching. */
+    private final Cache<String, SteamPlayer> playerSummaries;
+
+    /** Last known player summaries, served in place of players whose lookup failed while Steam is degraded. */
+    private final Cache<String, SteamPlayer> lastKnownPlayers;
+
+    /**
+     * Owned games keyed by Steam64 ID, shared by all game lists of widgets and by tracking, which each derive their own
+     * order from the same snapshot. Snapshots hold every owned game, so the cache is bounded by the total number of games.
+     */
+    private final Cache<String, List<SteamGame>> ownedGames;
+
+    private final boolean ownedGamesCacheEnabled;
+
+    /** Maximum number of Steam IDs GetPlayerSummaries accepts per request. */
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    private static final Duration BATCH_RETRY_DELAY = Duration.ofMillis(500);
+
+    /** Runs GetPlayerSummaries batches of large lookups; each one mostly waits on Steam. */
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Limits how many GetPlayerSummaries batches of all lookups run at the same time. */
+    private final Semaphore batchPermits;
+
+    private final int batchRetries;
+
+    /**
+     * Creates the Steam Web API service.
+     *
+     * @param api                      the Steam Web API client
+     * @param vanityResolutionService  cache of resolved vanity URLs
+     * @param meterRegistry            registry the player summary cache metrics are published to
+     * @param playerCacheTtl           seconds a player summary is reused before it is requested again, 0 disables the cache
+     * @param playerCacheMaxSize       maximum number of cached player summaries
+     * @param playerFallbackTtl        minutes the last known summary of a player is kept to stand in for failed lookups
+     * @param ownedGamesCacheTtl       seconds an owned games snapshot is reused before it is requested again, 0 disables the cache
+     * @param ownedGamesCacheMaxGames  maximum number of games in all cached owned games snapshots together
+     * @param maxConcurrentBatches     maximum number of GetPlayerSummaries batches requested at the same time
+     * @param batchRetries             number of times a failed GetPlayerSummaries batch is retried on its own
+     */
+    public SteamWebAPIService(SteamWebAPI api, VanityResolutionService vanityResolutionService, MeterRegistry meterRegistry,
+                              @Value("${steam.api.player-cache.ttl-seconds:30}") long playerCacheTtl,
+                              @Value("${steam.api.player-cache.max-size:50000}") long playerCacheMaxSize,
+                              @Value("${steam.api.player-cache.fallback-ttl-minutes:60}") long playerFallbackTtl,
+                              @Value("${steam.api.owned-games-cache.ttl-seconds:60}") long ownedGamesCacheTtl,
+                              @Value("${steam.api.owned-games-cache.max-games:500000}") long ownedGamesCacheMaxGames,
+                              @Value("${steam.api.player-summaries.max-concurrent-batches:4}") int maxConcurrentBatches,
+                              @Value("${steam.api.player-summaries.batch-retries:2}") int batchRetries) {
         this.api = api;
+        this.vanityResolutionService = vanityResolutionService;
+        this.playerSummaries = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(playerCacheTtl))
+                .maximumSize(playerCacheTtl > 0 ? playerCacheMaxSize : 0)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, playerSummaries, "steam.player.summaries");
+        this.lastKnownPlayers = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(playerFallbackTtl))
+                .maximumSize(playerCacheMaxSize)
+                .build();
+        this.ownedGames = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ownedGamesCacheTtl))
+                .maximumWeight(ownedGamesCacheTtl > 0 ? ownedGamesCacheMaxGames : 0)
+                .weigher((String steamId, List<SteamGame> games) -> Math.max(1, games.size()))
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, ownedGames, "steam.owned.games");
+        this.ownedGamesCacheEnabled = ownedGamesCacheTtl > 0;
+        this.batchPermits = new Semaphore(Math.max(1, maxConcurrentBatches));
+        this.batchRetries = Math.max(0, batchRetries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
     }
 
     /**
-     * Retrieves a {@link Player} object by their Steam ID. If the Steam ID is not in the correct format,
+     * Retrieves a {@link SteamPlayer} object by their Steam ID. If the Steam ID is not in the correct format,
      * it attempts to resolve it. This method also logs the access attempt by adding a hit to the profile
      * associated with the Steam ID.
      *
      * @param steamId The Steam ID of the user, which can be either a numeric ID or a vanity URL.
-     * @return A {@link Player} object containing the user's Steam profile information. Returns an empty
-     * {@link Player} object if no information could be retrieved.
+     * @return A {@link SteamPlayer} object containing the user's Steam profile information. Returns an empty
+     * {@link SteamPlayer} object if no information could be retrieved.
      */
-    public Player getUserBySteamId(String steamId) {
+    public SteamPlayer getUserBySteamId(String steamId) {
         try {
-            List<Player> players = getUsersBySteamIds(List.of(steamId));
+            List<SteamPlayer> players = getUsersBySteamIds(List.of(steamId));
             if (!players.isEmpty()) {
                 return players.getFirst();
             }
         } catch (Exception ignored) {
             log.warn(ignored.getMessage());
         }
-        return new Player();
+        return SteamPlayer.EMPTY;
     }
 
     /**
-     * Retrieves a {@link List} of {@link Player} objects by their Steam IDs. If any Steam ID is not in the correct format,
-     * it attempts to resolve it. This method processes multiple Steam IDs in a single request.
+     * Retrieves a {@link List} of {@link SteamPlayer} objects by their Steam IDs. If any Steam ID is not in the correct format,
+     * it attempts to resolve it. Summaries requested within the player cache TTL are served from memory, all
+     * others are fetched in batches of {@value #MAX_IDS_PER_REQUEST} IDs and cached. Batches run concurrently, and a
+     * batch that fails after its retries only drops the players it contains, as does a vanity name that could not be
+     * resolved.
      *
      * @param steamIds A {@link List} of Steam IDs, which can be either numeric IDs or vanity URLs.
-     * @return A {@link List} of {@link Player} objects containing the users' Steam profile information. Returns an empty
-     * {@link List} if no information could be retrieved.
+     * @return A {@link List} of {@link SteamPlayer} objects containing the users' Steam profile information, in the order
+     * of the given IDs. Returns an empty {@link List} if no information could be retrieved.
      */
-    public List<Player> getUsersBySteamIds(List<String> steamIds) {
+    public List<SteamPlayer> getUsersBySteamIds(List<String> steamIds) {
         try {
-            List<String> resolvedIds = new ArrayList<>();
+            Set<String> resolvedIds = new LinkedHashSet<>();
             for (String steamId : steamIds) {
-                String id = resolveSteamId(steamId);
-                resolvedIds.add(id == null ? steamId : id);
+                try {
+                    String id = resolveSteamId(steamId);
+                    resolvedIds.add(id == null ? steamId : id);
+                } catch (SteamApiException e) {
+                    /* Already logged, the other profiles are still looked up */
+                }
             }
-            GetPlayerSummariesRequest request = new GetPlayerSummariesRequest.GetPlayerSummariesRequestBuilder(resolvedIds).buildRequest();
-            GetPlayerSummaries playerSummaries = api.getClient().<GetPlayerSummaries>processRequest(request);
-            return playerSummaries.getResponse().getPlayers();
+
+            Map<String, SteamPlayer> found = new HashMap<>(playerSummaries.getAllPresent(resolvedIds));
+            List<String> missingIds = resolvedIds.stream().filter(id -> !found.containsKey(id)).toList();
+            if (!missingIds.isEmpty()) {
+                found.putAll(fetchPlayerSummaries(missingIds));
+            }
+
+            List<SteamPlayer> players = new ArrayList<>(resolvedIds.size());
+            for (String id : resolvedIds) {
+                SteamPlayer player = found.get(id);
+                if (player != null) {
+                    players.add(player);
+                }
+            }
+            return players;
         } catch (Exception ignored) {
             log.warn(ignored.getMessage());
         }
         return new ArrayList<>();
     }
 
+    /**
+     * Fetches player summaries in batches of {@value #MAX_IDS_PER_REQUEST} IDs and caches them. A single batch is
+     * fetched on the calling thread, multiple batches run concurrently within the batch permits.
+     *
+     * @param steamIds Steam64 IDs to fetch
+     * @return the fetched players keyed by Steam64 ID, without the players of failed batches
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the batches
+     */
+    private Map<String, SteamPlayer> fetchPlayerSummaries(List<String> steamIds) throws InterruptedException {
+        List<List<String>> batches = Lists.partition(steamIds, MAX_IDS_PER_REQUEST);
+        Map<String, SteamPlayer> players = new ConcurrentHashMap<>(steamIds.size());
+        if (batches.size() == 1) {
+            fetchBatchSafe(batches.getFirst(), players);
+            return players;
+        }
+
+        SteamApiRateLimiter.Priority priority = SteamApiRateLimiter.currentPriority();
+        List<Future<?>> futures = new ArrayList<>(batches.size());
+        try {
+            for (List<String> batch : batches) {
+                futures.add(batchExecutor.submit(() -> {
+                    batchPermits.acquire();
+                    try {
+                        SteamApiRateLimiter.runWithPriority(priority, () -> fetchBatchSafe(batch, players));
+                    } finally {
+                        batchPermits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.warn("Player summary batch failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return players;
+    }
+
+    /**
+     * Fetches one batch of player summaries, retrying it with a growing delay. Calls rejected by the circuit breaker are
+     * not retried. Failures after the last retry are logged, and the players of this batch are taken from their last
+     * known summaries, if any.
+     *
+     * @param steamIds at most {@value #MAX_IDS_PER_REQUEST} Steam64 IDs
+     * @param players  map the fetched players are added to
+     * @throws InterruptedException if interrupted while waiting for a retry
+     */
+    private void fetchBatchSafe(List<String> steamIds, Map<String, SteamPlayer> players) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                for (SteamPlayer player : api.getPlayerSummaries(steamIds)) {
+                    players.put(player.steamId(), player);
+                    playerSummaries.put(player.steamId(), player);
+                    lastKnownPlayers.put(player.steamId(), player);
+                }
+                return;
+            } catch (SteamApiException e) {
+                if (attempt >= batchRetries || e instanceof SteamApiCircuitBreaker.SteamApiUnavailableException) {
+                    log.warn("Failed to fetch {} player summaries after {} attempts: {}", steamIds.size(), attempt + 1, e.getMessage());
+                    players.putAll(lastKnownPlayers.getAllPresent(steamIds));
+                    return;
+                }
+                Thread.sleep(BATCH_RETRY_DELAY.toMillis() * (attempt + 1));
+            }
+        }
+    }
+
+    /**
+     * @return true if Steam is currently considered degraded and responses may be incomplete
+     */
+    public boolean isDegraded() {
+        return api.isDegraded();
+    }
+
+    /**
+     * Retrieves all owned games for a given Steam ID, sorted by the time they were last played, in descending order.
+     *
+     * @param steamId The Steam ID of the user whose games are to be retrieved.
+     * @return A list of {@link SteamGame} objects representing the owned games.
+     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     * @see #getRecentlyPlayedGames(String, int)
+     */
+    public List<SteamGame> getRecentlyPlayedGames(String steamId) throws SteamApiException {
+        return getRecentlyPlayedGames(steamId, Integer.MAX_VALUE);
+    }
+
     /**
      * Retrieves a list of recently played games for a given Steam ID.
      * <p>
-     * This method sends a request to the Steam Web API to fetch the recently played games
-     * for the specified Steam ID. It constructs a {@link GetOwnedGamesRequest} using the
-     * provided Steam ID, processes the request, and returns a {@link List} of {@link com.lukaspradel.steamapi.data.json.ownedgames.Game} objects.
-     * The games are sorted by the time they were last played, in descending order.
+     * This method takes the owned games of the specified Steam ID from its cached snapshot, fetching them from the Steam
+     * Web API if needed, and returns the most recently played ones as a {@link List} of {@link SteamGame} objects, sorted
+     * by the time they were last played, in descending order.
      * </p>
      *
      * @param steamId The Steam ID of the user whose recently played games are to be retrieved.
-     * @return A list of {@link com.lukaspradel.steamapi.data.json.ownedgames.Game} objects representing the recently played games.
+     * @param limit   The maximum number of games to return.
+     * @return A list of {@link SteamGame} objects representing the recently played games.
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
      */
-    public List<com.lukaspradel.steamapi.data.json.ownedgames.Game> getRecentlyPlayedGames(String steamId) throws SteamApiException {
+    public List<SteamGame> getRecentlyPlayedGames(String steamId, int limit) throws SteamApiException {
         try {
-            GetOwnedGamesRequest request = new GetOwnedGamesRequest.GetOwnedGamesRequestBuilder(steamId).includeAppInfo(true).includePlayedFreeGames(true).buildRequest();
-            GetOwnedGames ownedGames = api.getClient().processRequest(request);
-            ownedGames.getResponse().getGames().sort((g1, g2) ->
-                    Integer.compare(
-                            (Integer) g2.getAdditionalProperties().getOrDefault("rtime_last_played", 0),
-                            (Integer) g1.getAdditionalProperties().getOrDefault("rtime_last_played", 0)
-                    )
-            );
-            return ownedGames.getResponse().getGames();
+            return getTopOwnedGames(steamId, SteamApiTransport.GameOrder.LAST_PLAYED, limit);
         } catch (Exception ignored) {
             log.warn(ignored.getMessage());
         }
@@ -105,22 +302,20 @@ public class SteamWebAPIService {
     /**
      * Retrieves a list of recently played games for a given Steam ID.
      * <p>
-     * This method sends a request to the Steam Web API to fetch the recently played games
-     * for the specified Steam ID. It constructs a {@link GetRecentlyPlayedGamesRequest} using the
-     * provided Steam ID, processes the request, and returns a {@link List} of {@link com.lukaspradel.steamapi.data.json.recentlyplayedgames.Game} objects.
-     * The games are sorted by the playtime in the last two weeks, in descending order.
+     * This method fetches the games played in the last two weeks by the specified Steam ID from the Steam Web API and
+     * returns them as a {@link List} of {@link SteamGame} objects. The games are sorted by the playtime in the last two
+     * weeks, in descending order.
      * </p>
      *
      * @param steamId The Steam ID of the user whose recently played games are to be retrieved.
-     * @return A list of {@link com.lukaspradel.steamapi.data.json.recentlyplayedgames.Game} objects representing the recently played games.
+     * @return A list of {@link SteamGame} objects representing the recently played games.
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
      */
-    public List<com.lukaspradel.steamapi.data.json.recentlyplayedgames.Game> getTopRecentlyPlayedGames(String steamId) throws SteamApiException {
+    public List<SteamGame> getTopRecentlyPlayedGames(String steamId) throws SteamApiException {
         try {
-            GetRecentlyPlayedGamesRequest request = new GetRecentlyPlayedGamesRequest.GetRecentlyPlayedGamesRequestBuilder(steamId).buildRequest();
-            GetRecentlyPlayedGames recentlyPlayedGames = api.getClient().processRequest(request);
-            recentlyPlayedGames.getResponse().getGames().sort((g1, g2) -> Math.toIntExact(g2.getPlaytime2weeks() - g1.getPlaytime2weeks()));
-            return recentlyPlayedGames.getResponse().getGames();
+            List<SteamGame> games = new ArrayList<>(api.getRecentlyPlayedGames(steamId));
+            games.sort(Comparator.comparingLong((SteamGame game) -> game.playtime2weeks() == null ? 0 : game.playtime2weeks()).reversed());
+            return games;
         } catch (Exception ignored) {
             log.warn(ignored.getMessage());
         }
@@ -130,22 +325,19 @@ public class SteamWebAPIService {
     /**
      * Retrieves a list of top owned games for a given Steam ID.
      * <p>
-     * This method sends a request to the Steam Web API to fetch the owned games
-     * for the specified Steam ID. It constructs a {@link GetOwnedGamesRequest} using the
-     * provided Steam ID, processes the request, and returns a {@link List} of {@link com.lukaspradel.steamapi.data.json.ownedgames.Game} objects.
-     * The games are sorted by the total playtime, in descending order.
+     * This method takes the owned games of the specified Steam ID from its cached snapshot, fetching them from the Steam
+     * Web API if needed, and returns the ones with the most total playtime as a {@link List} of {@link SteamGame}
+     * objects, sorted by the total playtime, in descending order.
      * </p>
      *
      * @param steamId The Steam ID of the user whose owned games are to be retrieved.
-     * @return A list of {@link com.lukaspradel.steamapi.data.json.ownedgames.Game} objects representing the top owned games.
+     * @param limit   The maximum number of games to return.
+     * @return A list of {@link SteamGame} objects representing the top owned games.
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
      */
-    public List<com.lukaspradel.steamapi.data.json.ownedgames.Game> getTopOwnedGames(String steamId) throws SteamApiException {
+    public List<SteamGame> getTopOwnedGames(String steamId, int limit) throws SteamApiException {
         try {
-            GetOwnedGamesRequest request = new GetOwnedGamesRequest.GetOwnedGamesRequestBuilder(steamId).includeAppInfo(true).includePlayedFreeGames(true).buildRequest();
-            GetOwnedGames ownedGames = api.getClient().processRequest(request);
-            ownedGames.getResponse().getGames().sort((g1, g2) -> Math.toIntExact(g2.getPlaytimeForever() - g1.getPlaytimeForever()));
-            return ownedGames.getResponse().getGames();
+            return getTopOwnedGames(steamId, SteamApiTransport.GameOrder.PLAYTIME_FOREVER, limit);
         } catch (Exception ignored) {
             log.warn(ignored.getMessage());
         }
@@ -153,26 +345,88 @@ public class SteamWebAPIService {
     }
 
     /**
-     * Resolves the Steam ID to a numeric format if it is not already. This method handles both direct numeric Steam IDs
-     * and vanity URLs (custom user URLs). If the input is a vanity URL, it uses the Steam Web API to resolve it to a numeric ID.
+     * Drops the owned games snapshot of a Steam ID, so the next request reads them from Steam again.
+     *
+     * @param steamId the Steam64 ID
+     */
+    public void invalidateOwnedGames(String steamId) {
+        ownedGames.invalidate(steamId);
+    }
+
+    /**
+     * Selects the top owned games of a Steam ID from its cached snapshot. Concurrent requests for a Steam ID without a
+     * snapshot share a single GetOwnedGames call, which decodes every owned game. Only with the cache disabled are the top
+     * games streamed from Steam, keeping just the requested number of games in memory.
+     *
+     * @param steamId the Steam64 ID
+     * @param order   the order games are ranked in
+     * @param limit   the maximum number of games to return
+     * @return the top owned games, best first
+     * @throws SteamApiException if the owned games cannot be fetched
+     */
+    private List<SteamGame> getTopOwnedGames(String steamId, SteamApiTransport.GameOrder order, int limit) throws SteamApiException {
+        if (!ownedGamesCacheEnabled) {
+            return api.getTopOwnedGames(steamId, order, limit);
+        }
+
+        List<SteamGame> snapshot;
+        try {
+            snapshot = ownedGames.get(steamId, () -> api.getOwnedGames(steamId));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SteamApiException cause ? cause : new SteamApiException(e.getCause().getMessage());
+        }
+
+        TopGames top = new TopGames(limit);
+        for (SteamGame game : snapshot) {
+            top.offer(order.score(game.playtimeForever(), game.lastPlayed()), game);
+        }
+        return top.toList();
+    }
+
+    /**
+     * Resolves the Steam ID to a numeric format if it is not already. Steam64 IDs, profile URLs and the STEAM_X:Y:Z and
+     * [U:1:N] forms are converted locally by the {@link SteamIdParser}. Vanity names and vanity URLs (custom user URLs)
+     * are resolved through the Steam Web API. Resolutions are cached by the {@link VanityResolutionService}, so Steam is
+     * only asked for names not seen recently.
      *
      * @param steamId The Steam ID or vanity URL of the user.
-     * @return The numeric Steam ID corresponding to the input, or the original input if it's already a numeric ID or cannot be resolved.
-     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     * @return The numeric Steam ID corresponding to the input, or null if the input is not a Steam ID or vanity name,
+     * no profile uses the vanity name, or Steam answered with something unexpected.
+     * @throws SteamApiException If the vanity name could not be resolved because the Steam Web API failed or is
+     * unavailable. Such failures are not cached.
      */
     public String resolveSteamId(String steamId) throws SteamApiException {
-        String id = steamId;
+        SteamIdParser.SteamIdentifier identifier = steamId == null ? null : SteamIdParser.parse(steamId);
+        if (identifier == null) {
+            return null;
+        }
+        if (!identifier.isVanity()) {
+            return identifier.steam64Id();
+        }
+
+        String vanityName = identifier.vanityName();
+        Optional<String> cached = vanityResolutionService.getSteamId(vanityName);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        if (vanityResolutionService.isKnownUnresolved(vanityName)) {
+            return null;
+        }
+
+        String id;
         try {
-            if (!(id.matches("[0-9]+")) && id.length() != 17) {
-                if (id.contains("https://steamcommunity.com/id/")) {
-                    id = id.replaceAll("https://steamcommunity.com/id/", "").replaceAll("/", "");
-                }
-                ResolveVanityUrlRequest request = new ResolveVanityUrlRequest.ResolveVanityUrlRequestBuilder(id).buildRequest();
-                ResolveVanityURL vanityURL = api.getClient().processRequest(request);
-                id = vanityURL.getResponse().getSteamid();
-            }
-        } catch (Exception ignored) {
-            log.warn(ignored.getMessage());
+            id = api.resolveVanityUrl(vanityName);
+        } catch (SteamApiException e) {
+            log.warn("Failed to resolve vanity name {}: {}", vanityName, e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Failed to resolve vanity name {}: {}", vanityName, e.getMessage());
+            return null;
+        }
+        if (id != null) {
+            vanityResolutionService.putResolved(vanityName, id);
+        } else {
+            vanityResolutionService.putUnresolved(vanityName);
         }
         return id;
     }
@@ -1,38 +1,65 @@
 package codes.sharky.steamwidget.service;
 
 import codes.sharky.steamwidget.utils.IPUtils;
+import codes.sharky.steamwidget.utils.SingleFlight;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lukaspradel.steamapi.core.exception.SteamApiException;
-import com.lukaspradel.steamapi.data.json.ownedgames.GetOwnedGames;
-import com.lukaspradel.steamapi.data.json.playersummaries.GetPlayerSummaries;
-import com.lukaspradel.steamapi.data.json.playersummaries.Player;
-import com.lukaspradel.steamapi.data.json.recentlyplayedgames.GetRecentlyPlayedGames;
-import com.lukaspradel.steamapi.data.json.resolvevanityurl.ResolveVanityURL;
-import com.lukaspradel.steamapi.webapi.request.GetOwnedGamesRequest;
-import com.lukaspradel.steamapi.webapi.request.GetPlayerSummariesRequest;
-import com.lukaspradel.steamapi.webapi.request.GetRecentlyPlayedGamesRequest;
-import com.lukaspradel.steamapi.webapi.request.ResolveVanityUrlRequest;
+import codes.sharky.steamwidget.component.SteamApiRateLimiter;
 import codes.sharky.steamwidget.component.SteamWebAPI;
+import codes.sharky.steamwidget.component.WidgetImageEncoder;
+import codes.sharky.steamwidget.component.WidgetLayoutEngine;
+import codes.sharky.steamwidget.component.WidgetSvgRenderer;
 import codes.sharky.steamwidget.entity.Hit;
 import codes.sharky.steamwidget.entity.Profile;
+import codes.sharky.steamwidget.entity.ProfileCache;
+import codes.sharky.steamwidget.model.RenderedWidget;
 import codes.sharky.steamwidget.model.ShowedGames;
+import codes.sharky.steamwidget.model.SteamGame;
+import codes.sharky.steamwidget.model.SteamPlayer;
+import codes.sharky.steamwidget.model.WidgetData;
+import codes.sharky.steamwidget.model.WidgetFormat;
+import codes.sharky.steamwidget.model.WidgetGame;
+import codes.sharky.steamwidget.model.WidgetLayout;
+import codes.sharky.steamwidget.model.WidgetRenderKey;
 import codes.sharky.steamwidget.repository.HitRepository;
 import codes.sharky.steamwidget.repository.ProfileRepository;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 import org.imgscalr.Scalr;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FastByteArrayOutputStream;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.net.URI;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for managing Steam widget functionalities.
@@ -42,34 +69,126 @@ import java.util.Optional;
  * It interacts with the Steam Web API through the {@link SteamWebAPI} component and utilizes Spring's
  * dependency injection to access repositories for persisting data.
  */
+@Slf4j
 @Service
 public class SteamWidgetService {
 
+    /** Width of the widget layout in layout units; all drawing coordinates refer to this width. */
+    private static final int BASE_WIDTH = WidgetLayoutEngine.BASE_WIDTH;
+
+    /** Segments of the base template cache; Guava bounds each segment by its share of the maximum weight. */
+    private static final int TEMPLATE_CACHE_SEGMENTS = 4;
+
     private final SteamWebAPIService steamWebAPIService;
 
     private final ProfileService profileService;
 
-    public SteamWidgetService(SteamWebAPIService steamWebAPIService, ProfileService profileService) {
+    private final ProfileCachingService profileCachingService;
+
+    private final WidgetCacheService widgetCacheService;
+
+    private final RemoteImageService remoteImageService;
+
+    private final WidgetImageEncoder widgetImageEncoder;
+
+    private final WidgetSvgRenderer widgetSvgRenderer;
+
+    private final WidgetLayoutEngine widgetLayoutEngine;
+
+    /** The Steam logo, decoded once at startup. */
+    private final BufferedImage steamLogo;
+
+    /** Pre-rendered base widgets (background and logo) keyed by canvas size. */
+    private final Cache<Dimension, BufferedImage> baseTemplates;
+
+    /** Largest canvas in bytes that fits into one segment of the base template cache. */
+    private final long templateMaxEntryBytes;
+
+    /** Whether widgets are drawn directly at the requested width instead of being downscaled afterwards. */
+    private final boolean directScaling;
+
+    /**
+     * Runs all renders with a fixed concurrency and a bounded wait queue. When both are full, renders are rejected
+     * instead of piling up canvases on the request threads.
+     */
+    private final ThreadPoolExecutor renderExecutor;
+
+    /** Runs background refreshes of widgets past their soft TTL; each one mostly waits on Steam and the render executor. */
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Render keys with a background refresh in progress. */
+    private final Set<WidgetRenderKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** Concurrent data lookups for the same render key share one set of Steam API calls. */
+    private final SingleFlight<WidgetRenderKey, FingerprintedData> dataFlights = new SingleFlight<>();
+
+    /** Concurrent renders of the same render key share one render. */
+    private final SingleFlight<WidgetRenderKey, RenderedWidget> renderFlights = new SingleFlight<>();
+
+    /** Fonts and colors used while drawing, created once instead of for every string. */
+    private final Map<FontKey, Font> fonts = new ConcurrentHashMap<>();
+
+    private final Map<String, Color> colors = new ConcurrentHashMap<>();
+
+    /**
+     * Widget data together with its fingerprint and the time its load started.
+     */
+    private record FingerprintedData(WidgetData data, String etag, LocalDateTime loadedSince) {
+    }
+
+    private record FontKey(String name, int style, int size) {
+    }
+
+    public SteamWidgetService(SteamWebAPIService steamWebAPIService, ProfileService profileService, ProfileCachingService profileCachingService, WidgetCacheService widgetCacheService, RemoteImageService remoteImageService,
+                              WidgetImageEncoder widgetImageEncoder, WidgetSvgRenderer widgetSvgRenderer, WidgetLayoutEngine widgetLayoutEngine,
+                              @Value("${widget.template.cache.max-bytes:67108864}") long templateCacheMaxBytes,
+                              @Value("${widget.render.direct-scaling:true}") boolean directScaling,
+                              @Value("${widget.render.max-concurrent:4}") int maxConcurrentRenders,
+                              @Value("${widget.render.queue-capacity:32}") int renderQueueCapacity) {
         this.steamWebAPIService = steamWebAPIService;
         this.profileService = profileService;
+        this.profileCachingService = profileCachingService;
+        this.widgetCacheService = widgetCacheService;
+        this.remoteImageService = remoteImageService;
+        this.widgetImageEncoder = widgetImageEncoder;
+        this.widgetSvgRenderer = widgetSvgRenderer;
+        this.widgetLayoutEngine = widgetLayoutEngine;
+        this.steamLogo = this.loadImageFromResources("/static/img/steam_logo.png");
+        this.baseTemplates = CacheBuilder.newBuilder()
+                .concurrencyLevel(TEMPLATE_CACHE_SEGMENTS)
+                .maximumWeight(templateCacheMaxBytes)
+                .weigher((Dimension size, BufferedImage template) -> template.getWidth() * template.getHeight() * 4)
+                .build();
+        this.templateMaxEntryBytes = templateCacheMaxBytes / TEMPLATE_CACHE_SEGMENTS;
+        this.directScaling = directScaling;
+        int renderThreads = Math.max(1, maxConcurrentRenders);
+        this.renderExecutor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, renderQueueCapacity)),
+                new ThreadFactoryBuilder().setNameFormat("render-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+        refreshExecutor.shutdownNow();
     }
 
     /**
-     * Retrieves a {@link Player} object by their Steam ID. If the Steam ID is not in the correct format,
+     * Retrieves a {@link SteamPlayer} object by their Steam ID. If the Steam ID is not in the correct format,
      * it attempts to resolve it. This method also logs the access attempt by adding a hit to the profile
      * associated with the Steam ID.
      *
      * @param steamId The Steam ID of the user, which can be either a numeric ID or a vanity URL.
      * @param purpose The reason for accessing the user's Steam information.
      * @param ip      The IP address from which the request originated.
-     * @return A {@link Player} object containing the user's Steam profile information. Returns an empty
-     * {@link Player} object if no information could be retrieved.
+     * @return A {@link SteamPlayer} object containing the user's Steam profile information. Returns an empty
+     * {@link SteamPlayer} object if no information could be retrieved.
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
      */
-    public Player getUserBySteamId(String steamId, String purpose, String ip) throws SteamApiException {
-        Player player = steamWebAPIService.getUserBySteamId(steamId);
-        if (!player.getSteamid().isEmpty()) {
-            profileService.addHitToProfile(player.getSteamid(), player.getPersonaname(), purpose, ip, LocalDateTime.now());
+    public SteamPlayer getUserBySteamId(String steamId, String purpose, String ip) throws SteamApiException {
+        SteamPlayer player = steamWebAPIService.getUserBySteamId(steamId);
+        if (!Strings.isNullOrEmpty(player.steamId())) {
+            profileService.addHitToProfile(player.steamId(), player.personaName(), purpose, ip, LocalDateTime.now());
         }
 
         return player;
@@ -111,229 +230,615 @@ public class SteamWidgetService {
      * @throws SteamApiException If there is an issue with accessing the Steam Web API.
      */
     public BufferedImage generateWidgetImage(String steamId, @NotNull ShowedGames showGames, int recentGamesCount, boolean showPlayingRightNow, String purpose, String ip) throws SteamApiException {
-        Player player = getUserBySteamId(steamId, purpose, ip);
+        SteamPlayer player = getUserBySteamId(steamId, purpose, ip);
+        WidgetData data = loadWidgetData(player, showGames, recentGamesCount);
+        return drawWidget(data, loadImages(data), showPlayingRightNow, 0);
+    }
+
+    /**
+     * Returns the encoded widget for a given Steam ID, serving it from the {@link WidgetCacheService} when an
+     * identical widget was rendered recently. The Steam ID is resolved first so that vanity URLs and numeric IDs
+     * of the same profile share one cache entry. A hit is recorded for every call, cached or not.
+     * <p>
+     * On a cache miss the widget data is loaded and fingerprinted before anything is drawn. If the fingerprint matches
+     * one of the entity tags the client sent, the widget is not rendered and the result carries no image.
+     * Concurrent requests for the same key wait for one data lookup and one render instead of each doing their own.
+     * <p>
+     * Widgets past their soft TTL but within their hard TTL are returned immediately and refreshed in the background,
+     * so only a widget past its hard TTL makes the caller wait for Steam and the render.
+     * <p>
+     * Renders run on a bounded render executor. If it is saturated, the last cached copy of the widget is returned
+     * even if it is no longer fresh; without one the {@link RejectedExecutionException} is passed on to the caller.
+     *
+     * @param steamId The Steam ID of the user, which can be either a numeric ID or a vanity URL.
+     * @param showGames The type of games to be shown on the widget (e.g., top recent games, top total games, recent games).
+     * @param recentGamesCount The number of games to be displayed on the widget.
+     * @param showPlayingRightNow A boolean indicating whether to show the game the user is currently playing.
+     * @param width The width to which the generated image should be scaled, 0 keeps the original size.
+     * @param format The output format of the image.
+     * @param ifNoneMatch The If-None-Match header of the request, may be null.
+     * @param purpose The reason for accessing the user's Steam information, used for logging.
+     * @param ip The IP address from which the request originated, used for logging.
+     * @return The rendered widget containing the encoded image, or without an image if the client's copy is current.
+     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     * @throws IOException If the image could not be encoded.
+     * @throws RejectedExecutionException If the render executor is saturated and no cached copy exists.
+     */
+    public RenderedWidget getWidget(String steamId, @NotNull ShowedGames showGames, int recentGamesCount, boolean showPlayingRightNow, int width, @NotNull WidgetFormat format, String ifNoneMatch, String purpose, String ip) throws SteamApiException, IOException {
+        String resolvedId = steamWebAPIService.resolveSteamId(steamId);
+        WidgetRenderKey key = new WidgetRenderKey(Strings.isNullOrEmpty(resolvedId) ? steamId : resolvedId, showGames, recentGamesCount, showPlayingRightNow, width, format);
+
+        widgetCacheService.recordRequest(key);
+
+        Optional<RenderedWidget> cached = widgetCacheService.get(key);
+        RenderedWidget widget;
+        if (cached.isPresent()) {
+            widget = cached.get();
+        } else if ((cached = widgetCacheService.getRevalidating(key)).isPresent()) {
+            widget = cached.get();
+            refreshInBackground(key, SteamApiRateLimiter.currentPriority());
+        } else if (steamWebAPIService.isDegraded() && (cached = widgetCacheService.getStale(key)).isPresent()) {
+            /* Steam is failing, a stale widget beats waiting for degraded data */
+            widget = cached.get();
+        } else {
+            FingerprintedData loaded = loadData(key);
+            WidgetData data = loaded.data();
+            if (etagMatches(ifNoneMatch, loaded.etag())) {
+                widget = new RenderedWidget(null, data.steamId(), data.personaName(), loaded.etag(), LocalDateTime.now());
+            } else {
+                try {
+                    widget = renderAndCache(key, loaded);
+                } catch (RejectedExecutionException e) {
+                    /* Rather serve a stale widget than queue more renders on a saturated node */
+                    widget = widgetCacheService.getStale(key).orElseThrow(() -> e);
+                }
+            }
+        }
+
+        if (!Strings.isNullOrEmpty(widget.steamId())) {
+            profileService.addHitToProfile(widget.steamId(), widget.personaName(), purpose, ip, LocalDateTime.now());
+        }
 
-        List<Object> games = switch (showGames) {
-            case TOP_GAMES_RECENT -> {
-                List<Object> objects = new ArrayList<>(player.getSteamid() != null ? steamWebAPIService.getTopRecentlyPlayedGames(player.getSteamid()) : new ArrayList<>());
-                yield objects.stream().limit(recentGamesCount).toList();
+        return widget;
+    }
+
+    /**
+     * Starts background renders for the most requested widgets whose cached copy is missing or would stop being
+     * fresh within the given lead time, so requests for them keep being served from memory. Their Steam Web API calls run
+     * with background priority, so they cannot use the tokens reserved for live requests.
+     *
+     * @param limit The maximum number of widgets to consider.
+     * @param lead  How long the cached copies have to stay fresh.
+     * @return The number of widgets for which a render was started, without those already being refreshed.
+     */
+    public int preRenderHotWidgets(int limit, Duration lead) {
+        int started = 0;
+        for (WidgetRenderKey key : widgetCacheService.hottestKeys(limit)) {
+            if (widgetCacheService.expiresWithin(key, lead) && refreshInBackground(key, SteamApiRateLimiter.Priority.BACKGROUND)) {
+                started++;
             }
-            case TOP_GAMES_TOTAL -> {
-                List<Object> objects = new ArrayList<>(player.getSteamid() != null ? steamWebAPIService.getTopOwnedGames(player.getSteamid()) : new ArrayList<>());
-                yield objects.stream().limit(recentGamesCount).toList();
+        }
+        return started;
+    }
+
+    /**
+     * Loads and fingerprints the data of a widget. Concurrent loads of the same key share one set of Steam API calls.
+     * For profiles whose {@link ProfileCache} was refreshed recently, the profile information is taken from the
+     * cache and only the game list, if any, is requested from Steam.
+     *
+     * @param key The render key describing the widget.
+     * @return The widget data and its fingerprint.
+     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     */
+    private FingerprintedData loadData(@NotNull WidgetRenderKey key) throws SteamApiException {
+        return dataFlights.execute(key, () -> {
+            LocalDateTime loadedSince = LocalDateTime.now();
+            Optional<ProfileCache> profileCache = profileCachingService.getFreshProfileCache(key.steamId());
+            WidgetData data;
+            if (profileCache.isPresent()) {
+                ProfileCache cache = profileCache.get();
+                data = loadWidgetData(cache.getSteam64id(), cache.getPersonaname(), cache.getAvatarurl(), cache.getLastpersonastate(),
+                        Strings.nullToEmpty(cache.getLastgame()), key.gameList(), key.gameListSize());
+            } else {
+                SteamPlayer player = steamWebAPIService.getUserBySteamId(key.steamId());
+                data = loadWidgetData(player, key.gameList(), key.gameListSize());
             }
-            case RECENT_GAMES -> {
-                List<Object> objects = new ArrayList<>(player.getSteamid() != null ? steamWebAPIService.getRecentlyPlayedGames(player.getSteamid()) : new ArrayList<>());
-                yield objects.stream().limit(recentGamesCount).toList();
+            return new FingerprintedData(data, fingerprint(key, data), loadedSince);
+        });
+    }
+
+    /**
+     * Renders the widget for freshly loaded data and stores it in the cache. Concurrent renders of the same key share
+     * one render. If the cached copy was rendered from identical data, it is only marked fresh again. A cached copy is only
+     * returned as is if it was validated after the data was loaded, so refreshes of still fresh widgets do take effect.
+     *
+     * @param key    The render key describing the widget.
+     * @param loaded The widget data and its fingerprint.
+     * @return The fresh widget.
+     * @throws IOException If the image could not be encoded.
+     * @throws RejectedExecutionException If all render slots and the wait queue are taken.
+     */
+    private RenderedWidget renderAndCache(@NotNull WidgetRenderKey key, @NotNull FingerprintedData loaded) throws IOException {
+        return renderFlights.execute(key, () -> {
+            /* A flight that finished just before this one started may already have cached the widget from newer data */
+            Optional<RenderedWidget> previous = widgetCacheService.getStale(key);
+            if (previous.isPresent() && previous.get().validatedAt().isAfter(loaded.loadedSince())) {
+                return previous.get();
             }
-            default -> new ArrayList<>();
-        };
+            RenderedWidget fresh = previous.isPresent() && previous.get().etag().equals(loaded.etag())
+                    ? previous.get().revalidated()
+                    : submitRender(key, loaded.data(), loaded.etag());
+            widgetCacheService.put(key, fresh);
+            return fresh;
+        });
+    }
 
-        BufferedImage bufferedImage = new BufferedImage(3500, 750 + (games.size() * 500), BufferedImage.TYPE_INT_ARGB);
-        this.drawBaseWidget(bufferedImage);
-        if (player.getSteamid() != null) {
-            drawRoundImage(bufferedImage, player.getAvatarfull(), 125, 125, 500, 500);
-            drawUserInformation(bufferedImage, player, showPlayingRightNow);
+    /**
+     * Refreshes a cached widget in the background, unless a refresh of the same key is already running or Steam is
+     * degraded. Failures leave the cached copy in place until its hard TTL.
+     *
+     * @param key      The render key describing the widget.
+     * @param priority The priority of the refresh's Steam Web API calls.
+     * @return true if a refresh was submitted.
+     */
+    private boolean refreshInBackground(@NotNull WidgetRenderKey key, SteamApiRateLimiter.Priority priority) {
+        if (steamWebAPIService.isDegraded() || !refreshing.add(key)) {
+            return false;
+        }
 
-            drawGameSection(bufferedImage, games);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    SteamApiRateLimiter.runWithPriority(priority, () -> renderAndCache(key, loadData(key)));
+                } catch (RejectedExecutionException e) {
+                    log.debug("Render executor saturated, skipped background refresh of {}", key);
+                } catch (Exception e) {
+                    log.warn("Background refresh of widget {} failed", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            return false;
         }
+        return true;
+    }
 
-        return bufferedImage;
+    /**
+     * Renders the widget on the render executor and waits for the result. The avatar and game icons are loaded on the
+     * calling thread before the render is submitted, so a slow image host never holds a render slot.
+     *
+     * @param key  The render key describing the widget.
+     * @param data The data the widget is rendered from.
+     * @param etag The fingerprint of the key and the data.
+     * @return The rendered widget containing the encoded image.
+     * @throws IOException If the image could not be encoded or the wait was interrupted.
+     * @throws RejectedExecutionException If all render slots and the wait queue are taken.
+     */
+    private RenderedWidget submitRender(@NotNull WidgetRenderKey key, @NotNull WidgetData data, String etag) throws IOException {
+        Map<String, BufferedImage> images = key.format() == WidgetFormat.SVG ? Map.of() : loadImages(data);
+        Future<RenderedWidget> render = renderExecutor.submit(() -> renderWidget(key, data, images, etag));
+        try {
+            return render.get();
+        } catch (InterruptedException e) {
+            render.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for widget render");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Widget render failed", e.getCause());
+        }
     }
 
     /**
-     * Draws the game section on the widget image. This method iterates through the list of games and draws
-     * each game's icon, name, and playtime information onto the widget.
+     * Renders and encodes the widget described by the given key without consulting the cache and without recording a hit.
+     * SVG widgets are written as markup directly from the widget data, so they need neither a canvas nor the remote images.
      *
-     * @param image The BufferedImage object representing the widget onto which the game section will be drawn.
-     * @param games The list of games to be displayed in the game section. Each game can be an instance of
-     *              {@link com.lukaspradel.steamapi.data.json.recentlyplayedgames.Game} or {@link com.lukaspradel.steamapi.data.json.ownedgames.Game}.
+     * @param key    The render key describing the widget.
+     * @param data   The data the widget is rendered from.
+     * @param images The already loaded avatar and game icons, keyed by URL.
+     * @param etag   The fingerprint of the key and the data.
+     * @return The rendered widget containing the encoded image.
+     * @throws IOException If the image could not be encoded.
      */
-    private void drawGameSection(BufferedImage image, @NotNull List<Object> games) {
-        if (games.isEmpty()) {
-            return;
+    private RenderedWidget renderWidget(@NotNull WidgetRenderKey key, @NotNull WidgetData data, @NotNull Map<String, BufferedImage> images, String etag) throws IOException {
+        if (key.format() == WidgetFormat.SVG) {
+            byte[] svg = widgetSvgRenderer.render(data, key.playingRightNow(), key.width()).getBytes(StandardCharsets.UTF_8);
+            return new RenderedWidget(svg, data.steamId(), data.personaName(), etag, LocalDateTime.now());
         }
 
-        Graphics2D g = (Graphics2D) image.getGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        BufferedImage image;
+        if (directScaling || key.width() <= 0) {
+            image = drawWidget(data, images, key.playingRightNow(), key.width());
+        } else {
+            image = scaleImage(drawWidget(data, images, key.playingRightNow(), 0), key.width());
+        }
 
-        g.fillRoundRect(25, 745, image.getWidth() - 50, 10, 5, 5);
+        /* Encode into linked blocks that grow without copying and are consolidated once for the cache */
+        FastByteArrayOutputStream imageByteStream = new FastByteArrayOutputStream(64 * 1024);
+        widgetImageEncoder.write(image, key.format(), imageByteStream);
 
-        for (Object gameObject : games) {
-            if (gameObject instanceof com.lukaspradel.steamapi.data.json.recentlyplayedgames.Game game) {
-                String iconUrl = "https://media.steampowered.com/steamcommunity/public/images/apps/" + game.getAppid() + "/" + (game.getImgIconUrl().isEmpty() ? game.getImgLogoUrl() : game.getImgIconUrl()) + ".jpg";
-                drawRoundImage(image, iconUrl, 225, 750 + (games.indexOf(game) * 500) + 100, 300, 300);
+        return new RenderedWidget(imageByteStream.toByteArrayUnsafe(), data.steamId(), data.personaName(), etag, LocalDateTime.now());
+    }
 
-                long totalHour = game.getPlaytimeForever() / 60;
-                long totalMinute = game.getPlaytimeForever() % 60;
-                String totalPlaytime = "Total Playtime: " + totalHour + "h " + totalMinute + "m";
+    /**
+     * Computes a strong entity tag from everything that drives the render: the render parameters and the shown
+     * profile and game data. Equal fingerprints produce byte-identical images.
+     *
+     * @param key  The render key describing the widget.
+     * @param data The data the widget is rendered from.
+     * @return The quoted entity tag.
+     */
+    private String fingerprint(@NotNull WidgetRenderKey key, @NotNull WidgetData data) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putString(key.gameList().name(), StandardCharsets.UTF_8)
+                .putInt(key.gameListSize())
+                .putBoolean(key.playingRightNow())
+                .putInt(key.width())
+                .putString(key.format().name(), StandardCharsets.UTF_8)
+                .putString(Strings.nullToEmpty(data.steamId()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(Strings.nullToEmpty(data.personaName()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(Strings.nullToEmpty(data.avatarUrl()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putInt(data.personaState())
+                .putString(Strings.nullToEmpty(data.currentGame()), StandardCharsets.UTF_8).putByte((byte) 0);
+        for (WidgetGame game : data.games()) {
+            hasher.putLong(game.appId())
+                    .putString(Strings.nullToEmpty(game.name()), StandardCharsets.UTF_8).putByte((byte) 0)
+                    .putString(Strings.nullToEmpty(game.iconUrl()), StandardCharsets.UTF_8).putByte((byte) 0)
+                    .putLong(game.playtimeForever())
+                    .putLong(game.playtime2weeks() == null ? -1 : game.playtime2weeks());
+        }
 
-                long recentHour = game.getPlaytime2weeks() / 60;
-                long recentMinute = game.getPlaytime2weeks() % 60;
-                String recentPlaytime = "Recent Playtime: " + recentHour + "h " + recentMinute + "m";
+        return "\"" + hasher.hash() + "\"";
+    }
 
-                drawString(image, game.getName(), "ARIAL", Font.BOLD, "#ffffff", 100, 725, 750 + (games.indexOf(game) * 500) + 250);
-                drawString(image, recentPlaytime, "ARIAL", Font.PLAIN, "#c7d5e0", 75, 1725, 750 + (games.indexOf(game) * 500) + 350);
-                drawString(image, totalPlaytime, "ARIAL", Font.PLAIN, "#c7d5e0", 75, 725, 750 + (games.indexOf(game) * 500) + 350);
+    /**
+     * Checks whether an If-None-Match header matches the given entity tag, using weak comparison as required for GET.
+     *
+     * @param ifNoneMatch The If-None-Match header, may be null.
+     * @param etag        The quoted entity tag of the current widget.
+     * @return true if the client's copy is current.
+     */
+    private boolean etagMatches(String ifNoneMatch, @NotNull String etag) {
+        if (Strings.isNullOrEmpty(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
             }
-            else if (gameObject instanceof com.lukaspradel.steamapi.data.json.ownedgames.Game game) {
-                String iconUrl = "https://media.steampowered.com/steamcommunity/public/images/apps/" + game.getAppid() + "/" + (game.getImgIconUrl().isEmpty() ? game.getImgLogoUrl() : game.getImgIconUrl()) + ".jpg";
-                drawRoundImage(image, iconUrl, 225, 750 + (games.indexOf(game) * 500) + 100, 300, 300);
+        }
+        return false;
+    }
 
-                long totalHour = game.getPlaytimeForever() / 60;
-                long totalMinute = game.getPlaytimeForever() % 60;
-                String totalPlaytime = "Total Playtime: " + totalHour + "h " + totalMinute + "m";
+    /**
+     * Collects everything the widget shows for an already retrieved player: profile information and the
+     * games of the requested game list, normalised to {@link WidgetGame} rows.
+     *
+     * @param player The player whose information is shown.
+     * @param showGames The type of games to be shown on the widget.
+     * @param recentGamesCount The number of games to be displayed on the widget.
+     * @return The data the widget is rendered from.
+     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     */
+    private WidgetData loadWidgetData(@NotNull SteamPlayer player, @NotNull ShowedGames showGames, int recentGamesCount) throws SteamApiException {
+        if (player.steamId() == null) {
+            return new WidgetData("", null, null, 0, "", List.of());
+        }
 
-                if (game.getAdditionalProperties().containsKey("playtime_2weeks")) {
-                    int recentHour = (Integer) game.getAdditionalProperties().get("playtime_2weeks") / 60;
-                    int recentMinute = (Integer) game.getAdditionalProperties().get("playtime_2weeks") % 60;
-                    String recentPlaytime = "Recent Playtime: " + recentHour + "h " + recentMinute + "m";
+        return loadWidgetData(player.steamId(), player.personaName(), player.avatarFull(), player.personaState(),
+                Strings.nullToEmpty(player.gameExtraInfo()), showGames, recentGamesCount);
+    }
 
-                    drawString(image, recentPlaytime, "ARIAL", Font.PLAIN, "#c7d5e0", 75, 1725, 750 + (games.indexOf(game) * 500) + 350);
-                }
+    /**
+     * Collects everything the widget shows from already known profile information, loading only the games of
+     * the requested game list and normalising them to {@link WidgetGame} rows.
+     *
+     * @param steamId The Steam64 ID of the profile.
+     * @param personaName The persona name of the profile.
+     * @param avatarUrl The URL of the full size avatar.
+     * @param personaState The Steam persona state.
+     * @param currentGame The game currently played, empty if none.
+     * @param showGames The type of games to be shown on the widget.
+     * @param recentGamesCount The number of games to be displayed on the widget.
+     * @return The data the widget is rendered from.
+     * @throws SteamApiException If there is an issue with accessing the Steam Web API.
+     */
+    private WidgetData loadWidgetData(String steamId, String personaName, String avatarUrl, int personaState, String currentGame,
+                                      @NotNull ShowedGames showGames, int recentGamesCount) throws SteamApiException {
+        List<WidgetGame> games = switch (showGames) {
+            case TOP_GAMES_RECENT -> toWidgetGames(steamWebAPIService.getTopRecentlyPlayedGames(steamId), recentGamesCount);
+            case TOP_GAMES_TOTAL -> toWidgetGames(steamWebAPIService.getTopOwnedGames(steamId, recentGamesCount), recentGamesCount);
+            case RECENT_GAMES -> toWidgetGames(steamWebAPIService.getRecentlyPlayedGames(steamId, recentGamesCount), recentGamesCount);
+            default -> List.of();
+        };
+
+        return new WidgetData(steamId, personaName, avatarUrl, personaState, currentGame, games);
+    }
 
-                drawString(image, game.getName(), "ARIAL", Font.BOLD, "#ffffff", 100, 725, 750 + (games.indexOf(game) * 500) + 250);
-                drawString(image, totalPlaytime, "ARIAL", Font.PLAIN, "#c7d5e0", 75, 725, 750 + (games.indexOf(game) * 500) + 350);
+    /**
+     * Converts games to widget rows. The recent playtime is only set when Steam reported it.
+     *
+     * @param games The games, already sorted.
+     * @param limit The maximum number of rows.
+     * @return The widget rows.
+     */
+    private List<WidgetGame> toWidgetGames(@NotNull List<SteamGame> games, int limit) {
+        return games.stream()
+                .limit(limit)
+                .map(game -> new WidgetGame(game.appId(), game.name(), gameIconUrl(game.appId(), game.imgIconUrl(), game.imgLogoUrl()),
+                        game.playtimeForever(), game.playtime2weeks()))
+                .toList();
+    }
+
+    /**
+     * Builds the icon URL of a game, falling back to the logo if the game has no icon.
+     *
+     * @param appId    The Steam application ID.
+     * @param iconHash The icon hash reported by Steam.
+     * @param logoHash The logo hash reported by Steam.
+     * @return The URL of the icon.
+     */
+    private String gameIconUrl(Object appId, String iconHash, String logoHash) {
+        return "https://media.steampowered.com/steamcommunity/public/images/apps/" + appId + "/" + (Strings.isNullOrEmpty(iconHash) ? logoHash : iconHash) + ".jpg";
+    }
+
+    /**
+     * Draws the widget onto a new BufferedImage. All remote images (avatar and game icons) are collected first
+     * and fetched concurrently, so the render waits for the slowest single image instead of the sum of all.
+     * <p>
+     * Positions come from the {@link WidgetLayout} of the widget's shape, which is computed once and shared. The layout
+     * is defined for a width of {@value #BASE_WIDTH} units. When a width is given, the canvas is allocated at that
+     * width and every primitive is drawn through a scale transform, so no downscaling pass is needed.
+     * All primitives are drawn through one graphics context which is set up once per render.
+     *
+     * @param data The data the widget is rendered from.
+     * @param images The already loaded avatar and game icons, keyed by URL.
+     * @param showPlayingRightNow A boolean indicating whether to show the game the user is currently playing.
+     * @param width The width of the resulting image in pixels, 0 for the full layout width.
+     * @return A BufferedImage object representing the generated widget with the player's information.
+     */
+    private BufferedImage drawWidget(@NotNull WidgetData data, @NotNull Map<String, BufferedImage> images, boolean showPlayingRightNow, int width) {
+        WidgetLayout layout = widgetLayoutEngine.layout(data.games().size(), showPlayingRightNow && !data.currentGame().isEmpty());
+        BufferedImage bufferedImage = this.createBaseWidget(width > 0 ? width : BASE_WIDTH, layout);
+        if (!data.steamId().isEmpty()) {
+            Graphics2D g = createGraphics(bufferedImage);
+            try {
+                drawRoundImage(g, images.get(data.avatarUrl()), layout.avatar());
+                drawUserInformation(g, layout, data);
+
+                drawGameSection(g, layout, data.games(), images);
+            } finally {
+                g.dispose();
             }
         }
 
-        g.dispose();
+        return bufferedImage;
     }
 
     /**
-     * Draws the user's information on the widget image. This includes the player's name and, if available,
-     * the game they are currently playing. The information is drawn at specific coordinates with predefined
-     * styles and colors.
+     * Loads the avatar and the game icons shown on the widget through the {@link RemoteImageService}, which downloads
+     * missing images concurrently on its own fetch threads.
      *
-     * @param image  The BufferedImage object representing the widget onto which the user information will be drawn.
-     * @param player The Player object containing the user's Steam profile information.
+     * @param data The data the widget is rendered from.
+     * @return The loaded images keyed by URL, empty if the profile could not be resolved.
      */
-    private void drawUserInformation(BufferedImage image, Player player, boolean showPlayingRightNow) {
-        if (showPlayingRightNow && !player.getAdditionalProperties().getOrDefault("gameextrainfo", "").toString().isEmpty()) {
-            this.drawString(image, player.getPersonaname(), "ARIAL", Font.BOLD, "#ffffff", 200, 725, 350);
-            this.drawString(image, player.getAdditionalProperties().getOrDefault("gameextrainfo", "").toString(), "ARIAL", Font.PLAIN, "#c7d5e0", 150, 725, 550);
-        } else {
-            this.drawString(image, player.getPersonaname(), "ARIAL", Font.BOLD, "#ffffff", 200, 725, 450);
+    private Map<String, BufferedImage> loadImages(@NotNull WidgetData data) {
+        if (data.steamId().isEmpty()) {
+            return Map.of();
         }
-
-        this.drawStateDot(image, player);
+        List<String> imageUrls = new ArrayList<>(data.games().size() + 1);
+        imageUrls.add(data.avatarUrl());
+        data.games().forEach(game -> imageUrls.add(game.iconUrl()));
+        return remoteImageService.getRoundedImages(imageUrls);
     }
 
     /**
-     * Draws a colored dot on the widget image to represent the player's current state (e.g., online, busy, away).
-     * The color of the dot changes based on the player's state.
+     * Draws the game section on the widget image. This method iterates through the list of games and draws
+     * each game's icon, name, and playtime information into the corresponding row of the layout.
      *
-     * @param image  The BufferedImage object representing the widget onto which the state dot will be drawn.
-     * @param player The Player object containing the user's Steam profile information.
+     * @param g      The graphics context of the widget canvas.
+     * @param layout The layout of the widget.
+     * @param games  The list of games to be displayed in the game section.
+     * @param images The already loaded game icons, keyed by URL.
      */
-    private void drawStateDot(@NotNull BufferedImage image, @NotNull Player player) {
-        Graphics2D g = (Graphics2D) image.getGraphics();
+    private void drawGameSection(Graphics2D g, @NotNull WidgetLayout layout, @NotNull List<WidgetGame> games, Map<String, BufferedImage> images) {
+        if (layout.separator() == null) {
+            return;
+        }
 
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        WidgetLayout.Box separator = layout.separator();
+        g.setColor(color("#ffffff"));
+        g.fillRoundRect(separator.x(), separator.y(), separator.width(), separator.height(), separator.arc(), separator.arc());
 
-        g.setColor(player.getAdditionalProperties().getOrDefault("gameextrainfo", "") != "" ? Color.GREEN : player.getPersonastate() == 3 ? Color.YELLOW : player.getPersonastate() == 2 ? Color.RED : player.getPersonastate() == 1 ? Color.decode("#00b7ff") : Color.decode("#898989"));
-        g.fillOval(3350, 600, 100, 100);
+        for (int i = 0; i < games.size(); i++) {
+            WidgetGame game = games.get(i);
+            WidgetLayout.GameRow row = layout.rows().get(i);
 
-        g.dispose();
+            drawRoundImage(g, images.get(game.iconUrl()), row.icon());
+
+            long totalHour = game.playtimeForever() / 60;
+            long totalMinute = game.playtimeForever() % 60;
+            String totalPlaytime = "Total Playtime: " + totalHour + "h " + totalMinute + "m";
+
+            if (game.playtime2weeks() != null) {
+                long recentHour = game.playtime2weeks() / 60;
+                long recentMinute = game.playtime2weeks() % 60;
+                String recentPlaytime = "Recent Playtime: " + recentHour + "h " + recentMinute + "m";
+
+                drawString(g, row.recentPlaytime(), recentPlaytime);
+            }
+
+            drawString(g, row.name(), game.name());
+            drawString(g, row.totalPlaytime(), totalPlaytime);
+        }
     }
 
     /**
-     * Draws a string on the widget image. This method is used to draw the player's name and game information.
-     * The text is drawn with specified font, style, color, size, and coordinates.
+     * Draws the user's information on the widget image. This includes the player's name and, if the layout has
+     * a line for it, the game they are currently playing.
      *
-     * @param image    The BufferedImage object representing the widget onto which the text will be drawn.
-     * @param display  The text to be drawn.
-     * @param font     The font name to be used for drawing the text.
-     * @param style    The style of the font (e.g., Font.BOLD).
-     * @param hexColor The color of the text, specified in hexadecimal format.
-     * @param size     The size of the font.
-     * @param x        The x-coordinate where the text will start.
-     * @param y        The y-coordinate where the text will start.
-     */
-    private void drawString(@NotNull BufferedImage image, String display, String font, int style, String hexColor, Integer size, Integer x, Integer y) {
-        Graphics2D g = (Graphics2D) image.getGraphics();
-
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        g.setFont(new Font(font, style, size));
-        g.setColor(Color.decode(hexColor));
-        g.drawString(display, x, y);
+     * @param g      The graphics context of the widget canvas.
+     * @param layout The layout of the widget.
+     * @param data   The data containing the user's Steam profile information.
+     */
+    private void drawUserInformation(Graphics2D g, @NotNull WidgetLayout layout, WidgetData data) {
+        this.drawString(g, layout.personaName(), data.personaName());
+        if (layout.currentGame() != null) {
+            this.drawString(g, layout.currentGame(), data.currentGame());
+        }
 
-        g.dispose();
+        this.drawStateDot(g, layout.stateDot(), data);
     }
 
     /**
-     * Draws the profile image of the player on the widget. The profile image is first loaded from the URL,
-     * then processed to have rounded corners before being drawn onto the widget.
+     * Draws a colored dot on the widget image to represent the player's current state (e.g., online, busy, away).
+     * The color of the dot changes based on the player's state.
      *
-     * @param image The BufferedImage object representing the widget onto which the profile image will be drawn.
-     * @param url The URL of the player's profile image.
-     * @param x The x-coordinate where the profile image will be drawn.
-     * @param y The y-coordinate where the profile image will be drawn.
+     * @param g    The graphics context of the widget canvas.
+     * @param dot  The bounds of the dot.
+     * @param data The data containing the user's Steam profile information.
      */
-    private void drawRoundImage(@NotNull BufferedImage image, String url, int x, int y, int width, int height) {
-        BufferedImage profileImage = this.loadImageFromURL(url);
+    private void drawStateDot(@NotNull Graphics2D g, @NotNull WidgetLayout.Box dot, @NotNull WidgetData data) {
+        g.setColor(!data.currentGame().isEmpty() ? Color.GREEN : data.personaState() == 3 ? Color.YELLOW : data.personaState() == 2 ? Color.RED : data.personaState() == 1 ? color("#00b7ff") : color("#898989"));
+        g.fillOval(dot.x(), dot.y(), dot.width(), dot.height());
+    }
 
-        Graphics2D g = image.createGraphics();
+    /**
+     * Draws a string on the widget image with the font, color and position of the given text run.
+     *
+     * @param g       The graphics context of the widget canvas.
+     * @param run     The text run describing style and baseline position.
+     * @param display The text to be drawn.
+     */
+    private void drawString(@NotNull Graphics2D g, @NotNull WidgetLayout.TextRun run, String display) {
+        g.setFont(font(run.font(), run.style(), run.size()));
+        g.setColor(color(run.color()));
+        g.drawString(display, run.x(), run.y());
+    }
 
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    /**
+     * Draws an already rounded remote image, such as the profile image or a game icon, onto the widget.
+     * Nothing is drawn if the image could not be loaded.
+     *
+     * @param g            The graphics context of the widget canvas.
+     * @param roundedImage The rounded image from the {@link RemoteImageService}, or null if it could not be loaded.
+     * @param slot         The slot the image is drawn into.
+     */
+    private void drawRoundImage(@NotNull Graphics2D g, BufferedImage roundedImage, @NotNull WidgetLayout.Box slot) {
+        if (roundedImage == null) {
+            return;
+        }
 
-        BufferedImage roundedProfileImage = this.makeRoundedCorner(profileImage, 500);
+        g.drawImage(roundedImage, slot.x(), slot.y(), slot.width(), slot.height(), null);
+    }
 
-        g.drawImage(roundedProfileImage, x, y, width, height, null);
+    /**
+     * Returns the font with the given name, style and size, creating it only on first use.
+     *
+     * @param name  The font name.
+     * @param style The style of the font (e.g., Font.BOLD).
+     * @param size  The size of the font.
+     * @return The shared font instance.
+     */
+    private Font font(String name, int style, int size) {
+        return fonts.computeIfAbsent(new FontKey(name, style, size), key -> new Font(key.name(), key.style(), key.size()));
+    }
 
-        g.dispose();
+    /**
+     * Returns the color for the given hexadecimal value, parsing it only on first use.
+     *
+     * @param hexColor The color, specified in hexadecimal format.
+     * @return The shared color instance.
+     */
+    private Color color(String hexColor) {
+        return colors.computeIfAbsent(hexColor, Color::decode);
     }
 
     /**
-     * Creates a BufferedImage with rounded corners from the given image. This method is used to process
-     * images such as profile pictures to fit the widget's aesthetic.
+     * Creates a graphics context for the given widget canvas with antialiasing enabled and a scale transform
+     * that maps the {@value #BASE_WIDTH} unit wide layout onto the actual canvas width.
      *
-     * @param image        The original BufferedImage to be processed.
-     * @param cornerRadius The radius of the rounded corners.
-     * @return A new BufferedImage with rounded corners.
+     * @param image The widget canvas.
+     * @return A new graphics context which has to be disposed by the caller.
      */
-    public BufferedImage makeRoundedCorner(BufferedImage image, int cornerRadius) {
-        int w = image.getWidth();
-        int h = image.getHeight();
-        BufferedImage output = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    private Graphics2D createGraphics(@NotNull BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
 
-        Graphics2D g2 = output.createGraphics();
+        double scale = image.getWidth() / (double) BASE_WIDTH;
+        g.scale(scale, scale);
 
-        g2.setComposite(AlphaComposite.Src);
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setColor(Color.WHITE);
-        g2.fill(new RoundRectangle2D.Float(0, 0, w, h, cornerRadius, cornerRadius));
+        return g;
+    }
 
-        g2.setComposite(AlphaComposite.SrcAtop);
-        g2.drawImage(image, 0, 0, null);
+    /**
+     * Creates a new widget canvas with the base design already applied. The base design is rendered once
+     * per canvas size and then only copied, so a render starts from a pixel copy instead of rasterising
+     * the background shapes and the logo again. Canvases too large for one segment of the template cache, such as most
+     * full-width widgets, would be evicted right away; they are drawn directly instead of being rendered and copied.
+     *
+     * @param width  The width of the canvas in pixels.
+     * @param layout The layout of the widget; the canvas height is scaled from its height.
+     * @return A new BufferedImage containing the base design.
+     */
+    private BufferedImage createBaseWidget(int width, @NotNull WidgetLayout layout) {
+        Dimension size = new Dimension(width, Math.max(1, (int) Math.round(layout.height() * (width / (double) BASE_WIDTH))));
+        if ((long) size.width * size.height * 4 > templateMaxEntryBytes) {
+            BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+            this.drawBaseWidget(image, layout);
+            return image;
+        }
 
-        g2.dispose();
+        BufferedImage template;
+        try {
+            template = baseTemplates.get(size, () -> {
+                BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+                this.drawBaseWidget(image, layout);
+                return image;
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to render base widget", e.getCause());
+        }
 
-        return output;
+        return new BufferedImage(template.getColorModel(), template.copyData(null), template.isAlphaPremultiplied(), null);
     }
 
     /**
      * Draws the base design of the widget onto the given BufferedImage. This includes setting the background,
      * drawing rounded corners, and placing the Steam logo at a predefined position.
      *
-     * @param image The BufferedImage object representing the widget onto which the base design will be drawn.
+     * @param image  The BufferedImage object representing the widget onto which the base design will be drawn.
+     * @param layout The layout of the widget.
      */
-    private void drawBaseWidget(@NotNull BufferedImage image) {
-        Graphics2D g = image.createGraphics();
-
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    private void drawBaseWidget(@NotNull BufferedImage image, @NotNull WidgetLayout layout) {
+        Graphics2D g = createGraphics(image);
+        int height = layout.height();
+        WidgetLayout.Box logo = layout.logo();
 
         g.setComposite(AlphaComposite.Clear);
-        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.fillRect(0, 0, BASE_WIDTH, height);
         g.setComposite(AlphaComposite.Src);
-        g.setColor(Color.decode("#171d25"));
-        g.fillRoundRect(0, 0, image.getWidth(), image.getHeight(), 100, 100);
-        g.setColor(Color.decode("#1b2838"));
-        g.drawRoundRect(0, 0, image.getWidth(), image.getHeight(), 100, 100);
+        g.setColor(color("#171d25"));
+        g.fillRoundRect(0, 0, BASE_WIDTH, height, 100, 100);
+        g.setColor(color("#1b2838"));
+        g.drawRoundRect(0, 0, BASE_WIDTH, height, 100, 100);
 
-        BufferedImage logo = this.loadImageFromResources("/static/img/steam_logo.png");
-        g.drawImage(logo, image.getWidth() - 500, 100, 400, 120, Color.decode("#171d25"), null);
+        g.drawImage(steamLogo, logo.x(), logo.y(), logo.width(), logo.height(), color("#171d25"), null);
 
         g.dispose();
     }
@@ -343,7 +848,7 @@ public class SteamWidgetService {
      * like the Steam logo.
      *
      * @param path The path to the resource within the resources folder.
-     * @return A BufferedImage object of the loaded image, or an empty BufferedImage if the image could not be loaded.
+     * @return A BufferedImage object of the loaded image, or a transparent 1x1 BufferedImage if the image could not be loaded.
      */
     private BufferedImage loadImageFromResources(String path) {
         if (path != null && path.length() > 5) {
@@ -354,27 +859,16 @@ public class SteamWidgetService {
             }
         }
 
-        return new BufferedImage(0, 0, BufferedImage.TYPE_INT_ARGB);
+        return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
     }
 
     /**
-     * Loads an image from a given URL. This method is used to load external images, such as user profile pictures.
+     * Downscales a fully rendered widget to the given width. Only used when direct scaling is disabled.
      *
-     * @param url The URL from which the image will be loaded.
-     * @return A BufferedImage object of the loaded image, or an empty BufferedImage if the image could not be loaded.
+     * @param image The rendered widget.
+     * @param width The target width in pixels.
+     * @return The scaled image.
      */
-    private BufferedImage loadImageFromURL(String url) {
-        if (url != null && url.length() > 5) {
-            try {
-                return ImageIO.read(new URI(url).toURL());
-            } catch (Exception ignored) {
-
-            }
-        }
-
-        return new BufferedImage(0, 0, BufferedImage.TYPE_INT_ARGB);
-    }
-
     public BufferedImage scaleImage(BufferedImage image, int width) {
         return Scalr.resize(image, width);
     }
@@ -0,0 +1,123 @@
+package codes.sharky.steamwidget.service;
+
+import codes.sharky.steamwidget.entity.VanityResolution;
+import codes.sharky.steamwidget.repository.VanityResolutionRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of vanity URL resolutions. Resolved names are kept in a bounded in-memory cache backed by the
+ * {@code vanity_resolution} table, so they survive restarts and are shared between nodes. Names Steam could not
+ * resolve are only remembered in memory and for a short time, as they may be claimed at any moment.
+ * <p>
+ * Vanity names are case-insensitive on Steam and are therefore stored lower case.
+ */
+@Service
+@Slf4j
+public class VanityResolutionService {
+
+    private final VanityResolutionRepository repository;
+
+    private final Cache<String, String> resolved;
+
+    private final Cache<String, Boolean> unresolved;
+
+    private final Duration verifyAfter;
+
+    /**
+     * Creates the vanity resolution cache.
+     *
+     * @param repository         repository of persisted resolutions
+     * @param memoryMaxSize      maximum number of resolutions kept in memory
+     * @param verifyAfterHours   hours after which a persisted resolution is verified against Steam again
+     * @param negativeTtlSeconds seconds a name Steam could not resolve is not requested again
+     */
+    public VanityResolutionService(VanityResolutionRepository repository,
+                                   @Value("${steam.api.vanity-cache.max-size:100000}") long memoryMaxSize,
+                                   @Value("${steam.api.vanity-cache.verify-after-hours:168}") long verifyAfterHours,
+                                   @Value("${steam.api.vanity-cache.negative-ttl-seconds:300}") long negativeTtlSeconds) {
+        this.repository = repository;
+        this.verifyAfter = Duration.ofHours(verifyAfterHours);
+        this.resolved = CacheBuilder.newBuilder()
+                .maximumSize(memoryMaxSize)
+                .expireAfterWrite(verifyAfter)
+                .build();
+        this.unresolved = CacheBuilder.newBuilder()
+                .maximumSize(memoryMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the Steam64 ID a vanity name resolved to, from memory or from the database.
+     *
+     * @param vanityName the vanity name
+     * @return the Steam64 ID, or an empty optional if the name is not cached or its resolution is due for verification
+     */
+    public Optional<String> getSteamId(String vanityName) {
+        String key = key(vanityName);
+        String steamId = resolved.getIfPresent(key);
+        if (steamId != null) {
+            return Optional.of(steamId);
+        }
+
+        try {
+            Optional<String> persisted = repository.findByVanitynameAndLastverifiedAfter(key, LocalDateTime.now().minus(verifyAfter))
+                    .map(VanityResolution::getSteam64id);
+            persisted.ifPresent(id -> resolved.put(key, id));
+            return persisted;
+        } catch (Exception e) {
+            log.warn("Failed to read vanity resolution for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns whether Steam recently could not resolve the vanity name.
+     *
+     * @param vanityName the vanity name
+     * @return true if the name should not be requested again yet
+     */
+    public boolean isKnownUnresolved(String vanityName) {
+        return unresolved.getIfPresent(key(vanityName)) != null;
+    }
+
+    /**
+     * Remembers a resolution in memory and in the database.
+     *
+     * @param vanityName the vanity name
+     * @param steamId    the Steam64 ID it resolved to
+     */
+    public void putResolved(String vanityName, String steamId) {
+        String key = key(vanityName);
+        resolved.put(key, steamId);
+        unresolved.invalidate(key);
+        try {
+            repository.save(new VanityResolution(key, steamId, LocalDateTime.now()));
+        } catch (Exception e) {
+            log.warn("Failed to store vanity resolution for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Remembers for a short time that Steam could not resolve the vanity name.
+     *
+     * @param vanityName the vanity name
+     */
+    public void putUnresolved(String vanityName) {
+        unresolved.put(key(vanityName), Boolean.TRUE);
+    }
+
+    private String key(String vanityName) {
+        return vanityName.toLowerCase(Locale.ROOT);
+    }
+
+}
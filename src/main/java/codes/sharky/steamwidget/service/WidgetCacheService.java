@@ -0,0 +1,154 @@
+package codes.sharky.steamwidget.service;
+
+import codes.sharky.steamwidget.model.RenderedWidget;
+import codes.sharky.steamwidget.model.WidgetRenderKey;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of encoded widget images keyed by every parameter that influences the rendered output.
+ * <p>
+ * Entries are fresh until their soft TTL. Until the hard TTL they may still be served while they are refreshed in
+ * the background. Afterwards they are kept as stale copies for a longer period, which are only served when a new
+ * render is not possible. The cache is bounded by the total size of the stored images.
+ * <p>
+ * Requests are counted per key, so the most requested widgets can be rendered ahead of their expiry.
+ */
+@Service
+public class WidgetCacheService {
+
+    private final Cache<WidgetRenderKey, RenderedWidget> cache;
+
+    private final Duration ttl;
+
+    private final Duration hardTtl;
+
+    /** Requests per key since the last ranking. */
+    private final ConcurrentHashMap<WidgetRenderKey, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+    /** Exponentially decayed request counts per key, only accessed while ranking. */
+    private final Map<WidgetRenderKey, Double> requestScores = new HashMap<>();
+
+    /**
+     * Creates the widget cache.
+     *
+     * @param ttlSeconds      seconds a rendered widget is served from memory before it is refreshed (soft TTL)
+     * @param hardTtlSeconds  seconds after which a rendered widget is no longer served while being refreshed
+     * @param staleTtlSeconds seconds a rendered widget is kept as a fallback for when no render is possible
+     * @param maxBytes        upper bound for the total size of all cached images in bytes
+     */
+    public WidgetCacheService(@Value("${widget.cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${widget.cache.hard-ttl-seconds:900}") long hardTtlSeconds,
+                              @Value("${widget.cache.stale-ttl-seconds:3600}") long staleTtlSeconds,
+                              @Value("${widget.cache.max-bytes:67108864}") long maxBytes) {
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.hardTtl = Duration.ofSeconds(Math.max(ttlSeconds, hardTtlSeconds));
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.max(hardTtl.toSeconds(), staleTtlSeconds)))
+                .maximumWeight(maxBytes)
+                .weigher((WidgetRenderKey key, RenderedWidget widget) -> widget.image().length)
+                .build();
+    }
+
+    /**
+     * Returns the cached widget for the given key, if present and still fresh.
+     *
+     * @param key render key of the widget
+     * @return the cached widget or an empty optional
+     */
+    public Optional<RenderedWidget> get(WidgetRenderKey key) {
+        LocalDateTime freshSince = LocalDateTime.now().minus(ttl);
+        return getStale(key).filter(widget -> widget.validatedAt().isAfter(freshSince));
+    }
+
+    /**
+     * Returns the cached widget for the given key if it is past its soft TTL but not yet past its hard TTL,
+     * i.e. if it may still be served while a refresh runs.
+     *
+     * @param key render key of the widget
+     * @return the cached widget or an empty optional
+     */
+    public Optional<RenderedWidget> getRevalidating(WidgetRenderKey key) {
+        LocalDateTime servableSince = LocalDateTime.now().minus(hardTtl);
+        return getStale(key).filter(widget -> widget.validatedAt().isAfter(servableSince));
+    }
+
+    /**
+     * Returns the last cached widget for the given key, even if it is no longer fresh.
+     *
+     * @param key render key of the widget
+     * @return the cached widget or an empty optional
+     */
+    public Optional<RenderedWidget> getStale(WidgetRenderKey key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * Returns whether the cached widget for the given key is missing or stops being fresh within the given duration.
+     *
+     * @param key  render key of the widget
+     * @param lead how long the widget has to stay fresh
+     * @return true if the widget should be rendered again
+     */
+    public boolean expiresWithin(WidgetRenderKey key, Duration lead) {
+        LocalDateTime freshSince = LocalDateTime.now().minus(ttl).plus(lead);
+        return getStale(key).map(widget -> !widget.validatedAt().isAfter(freshSince)).orElse(true);
+    }
+
+    /**
+     * Counts a request for the widget with the given key.
+     *
+     * @param key render key of the requested widget
+     */
+    public void recordRequest(WidgetRenderKey key) {
+        requestCounts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns the most requested widget keys. Every call halves the previous scores before adding the requests
+     * counted since the last call, so widgets that are no longer requested drop out after a few calls.
+     *
+     * @param limit maximum number of keys to return
+     * @return the keys ordered by descending score
+     */
+    public synchronized List<WidgetRenderKey> hottestKeys(int limit) {
+        requestScores.replaceAll((key, score) -> score / 2);
+        requestCounts.forEach((key, count) -> {
+            long requests = count.sumThenReset();
+            if (requests > 0) {
+                requestScores.merge(key, (double) requests, Double::sum);
+            }
+        });
+        requestCounts.values().removeIf(count -> count.sum() == 0);
+        requestScores.values().removeIf(score -> score < 0.5);
+
+        return requestScores.entrySet().stream()
+                .sorted(Map.Entry.<WidgetRenderKey, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Stores a rendered widget in the cache.
+     *
+     * @param key    render key of the widget
+     * @param widget the rendered widget
+     */
+    public void put(WidgetRenderKey key, RenderedWidget widget) {
+        cache.put(key, widget);
+    }
+
+}
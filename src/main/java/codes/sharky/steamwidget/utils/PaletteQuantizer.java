@@ -0,0 +1,192 @@
+package codes.sharky.steamwidget.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reduces ARGB images to an 8-bit palette so they can be written as indexed PNGs.
+ * <p>
+ * Images with at most 256 distinct colors are converted exactly. Otherwise colors are grouped into buckets of
+ * 5 bits per color channel and 2 bits of alpha, the most frequent buckets become the palette (each entry the mean of
+ * the pixels in its bucket) and every other bucket is mapped to its nearest entry. Widgets consist of a few flat
+ * colors plus antialiased edges, which this popularity approach keeps close to the original.
+ */
+public class PaletteQuantizer {
+
+    private PaletteQuantizer() {}
+
+    private static final int MAX_COLORS = 256;
+
+    private static final int BUCKET_COUNT = 1 << 17;
+
+    /**
+     * Converts the image into an indexed image with at most 256 colors. Fully transparent pixels share palette index 0.
+     *
+     * @param image the image to quantise
+     * @return a new {@link BufferedImage#TYPE_BYTE_INDEXED} image of the same size
+     */
+    public static BufferedImage quantize(@NotNull BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        int[] palette = exactPalette(pixels);
+        byte[] indices = new byte[pixels.length];
+        if (palette != null) {
+            Map<Integer, Integer> lookup = new HashMap<>();
+            for (int i = 0; i < palette.length; i++) {
+                lookup.put(palette[i], i);
+            }
+            for (int i = 0; i < pixels.length; i++) {
+                indices[i] = (byte) (int) lookup.get(normalize(pixels[i]));
+            }
+        } else {
+            palette = popularityPalette(pixels, indices);
+        }
+
+        byte[] r = new byte[palette.length];
+        byte[] g = new byte[palette.length];
+        byte[] b = new byte[palette.length];
+        byte[] a = new byte[palette.length];
+        for (int i = 0; i < palette.length; i++) {
+            a[i] = (byte) (palette[i] >>> 24);
+            r[i] = (byte) (palette[i] >> 16);
+            g[i] = (byte) (palette[i] >> 8);
+            b[i] = (byte) palette[i];
+        }
+
+        BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED,
+                new IndexColorModel(8, palette.length, r, g, b, a));
+        byte[] data = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+        System.arraycopy(indices, 0, data, 0, indices.length);
+
+        return indexed;
+    }
+
+    /**
+     * Collects the distinct colors of the image, transparent first.
+     *
+     * @return the palette, or null if the image has more than 256 distinct colors
+     */
+    private static int[] exactPalette(int[] pixels) {
+        Map<Integer, Boolean> colors = new HashMap<>();
+        colors.put(0, Boolean.TRUE);
+        for (int argb : pixels) {
+            if (colors.putIfAbsent(normalize(argb), Boolean.TRUE) == null && colors.size() > MAX_COLORS) {
+                return null;
+            }
+        }
+
+        int[] palette = new int[colors.size()];
+        int i = 1;
+        for (int color : colors.keySet()) {
+            if (color != 0) {
+                palette[i++] = color;
+            }
+        }
+        return palette;
+    }
+
+    /**
+     * Builds a palette from the most frequent color buckets and writes the palette index of every pixel.
+     *
+     * @return the palette, transparent first
+     */
+    private static int[] popularityPalette(int[] pixels, byte[] indices) {
+        int[] counts = new int[BUCKET_COUNT];
+        long[] sums = new long[BUCKET_COUNT * 4];
+        int[] buckets = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i];
+            int bucket = bucket(argb);
+            buckets[i] = bucket;
+            if (bucket >= 0) {
+                counts[bucket]++;
+                sums[bucket * 4] += argb >>> 24;
+                sums[bucket * 4 + 1] += (argb >> 16) & 0xff;
+                sums[bucket * 4 + 2] += (argb >> 8) & 0xff;
+                sums[bucket * 4 + 3] += argb & 0xff;
+            }
+        }
+
+        /* Sort the used buckets by frequency, packed as count << 17 | bucket so a primitive sort suffices */
+        int used = 0;
+        long[] ranked = new long[BUCKET_COUNT];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if (counts[bucket] > 0) {
+                ranked[used++] = ((long) counts[bucket] << 17) | bucket;
+            }
+        }
+        ranked = Arrays.copyOf(ranked, used);
+        Arrays.sort(ranked);
+
+        int paletteSize = Math.min(used, MAX_COLORS - 1) + 1;
+        int[] palette = new int[paletteSize];
+        int[] bucketIndex = new int[BUCKET_COUNT];
+        for (int i = 1; i < paletteSize; i++) {
+            int bucket = (int) (ranked[used - i] & (BUCKET_COUNT - 1));
+            int count = counts[bucket];
+            palette[i] = (int) (sums[bucket * 4] / count) << 24
+                    | (int) (sums[bucket * 4 + 1] / count) << 16
+                    | (int) (sums[bucket * 4 + 2] / count) << 8
+                    | (int) (sums[bucket * 4 + 3] / count);
+            bucketIndex[bucket] = i;
+        }
+
+        /* Map the remaining buckets to the nearest palette entry, measured from the bucket's mean color */
+        for (int r = 0; r < used - (paletteSize - 1); r++) {
+            int bucket = (int) (ranked[r] & (BUCKET_COUNT - 1));
+            int count = counts[bucket];
+            int ma = (int) (sums[bucket * 4] / count);
+            int mr = (int) (sums[bucket * 4 + 1] / count);
+            int mg = (int) (sums[bucket * 4 + 2] / count);
+            int mb = (int) (sums[bucket * 4 + 3] / count);
+            int best = 1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int i = 1; i < paletteSize; i++) {
+                int p = palette[i];
+                int da = (p >>> 24) - ma;
+                int dr = ((p >> 16) & 0xff) - mr;
+                int dg = ((p >> 8) & 0xff) - mg;
+                int db = (p & 0xff) - mb;
+                int distance = da * da + dr * dr + dg * dg + db * db;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            bucketIndex[bucket] = best;
+        }
+
+        for (int i = 0; i < pixels.length; i++) {
+            indices[i] = buckets[i] < 0 ? 0 : (byte) bucketIndex[buckets[i]];
+        }
+
+        return palette;
+    }
+
+    /**
+     * Returns the bucket of a color, or -1 for fully transparent pixels.
+     */
+    private static int bucket(int argb) {
+        int alpha = argb >>> 24;
+        if (alpha == 0) {
+            return -1;
+        }
+        return (alpha >> 6) << 15 | ((argb >> 19) & 0x1f) << 10 | ((argb >> 11) & 0x1f) << 5 | ((argb >> 3) & 0x1f);
+    }
+
+    /**
+     * Maps all fully transparent colors to 0 so they share one palette entry.
+     */
+    private static int normalize(int argb) {
+        return (argb >>> 24) == 0 ? 0 : argb;
+    }
+
+}
@@ -0,0 +1,86 @@
+package codes.sharky.steamwidget.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates concurrent computations of the same key.
+ * <p>
+ * The first caller for a key runs the computation, every caller arriving while it is still running waits for and
+ * shares its result or exception. Once the computation finished, the next caller for that key starts a new one, so
+ * results are never cached here.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * A computation that may throw a checked exception.
+     *
+     * @param <V> the result type
+     * @param <E> the checked exception type
+     */
+    @FunctionalInterface
+    public interface Computation<V, E extends Exception> {
+        V compute() throws E;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the computation for the given key, or waits for the one already running for an equal key.
+     *
+     * @param key         the key identifying the computation
+     * @param computation the computation to run if none is in flight for the key
+     * @return the result of the computation
+     * @throws E the exception thrown by the computation
+     */
+    public <E extends Exception> V execute(@NotNull K key, @NotNull Computation<V, E> computation) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = computation.compute();
+            flight.complete(value);
+            return value;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of computations currently in flight.
+     *
+     * @return the number of keys being computed
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> flight) throws E {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw (E) cause;
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+package codes.sharky.steamwidget.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Parses the ways users refer to a Steam account without regular expressions or intermediate strings.
+ * <p>
+ * Recognised forms are raw Steam64 IDs, {@code steamcommunity.com/profiles/<id>} and {@code steamcommunity.com/id/<vanity>}
+ * URLs (with or without scheme and {@code www.}), {@code STEAM_X:Y:Z} and {@code [U:1:N]}. Numeric forms are converted to
+ * Steam64 IDs locally, only vanity names need to be resolved through the Steam Web API.
+ */
+public class SteamIdParser {
+
+    private SteamIdParser() {}
+
+    /** Steam64 ID of account number 0 in the public universe. */
+    private static final long STEAM64_BASE = 76561197960265728L;
+
+    private static final String HOST = "steamcommunity.com";
+    private static final String PROFILES_PATH = "/profiles/";
+    private static final String ID_PATH = "/id/";
+
+    /**
+     * Result of parsing an identifier. Exactly one of both values is set.
+     *
+     * @param steam64Id  the Steam64 ID, if the identifier was numeric
+     * @param vanityName the vanity name that still has to be resolved, otherwise
+     */
+    public record SteamIdentifier(@Nullable String steam64Id, @Nullable String vanityName) {
+
+        /**
+         * @return true if the identifier is a vanity name that has to be resolved
+         */
+        public boolean isVanity() {
+            return vanityName != null;
+        }
+    }
+
+    /**
+     * Parses a Steam identifier.
+     *
+     * @param input the identifier as entered by the user
+     * @return the parsed identifier, or null if the input is blank or an empty community URL
+     */
+    public static @Nullable SteamIdentifier parse(@NotNull String input) {
+        String id = input.strip();
+        if (id.isEmpty()) {
+            return null;
+        }
+
+        if (isDigits(id, 0, id.length())) {
+            return new SteamIdentifier(id, null);
+        }
+
+        char first = id.charAt(0);
+        if (first == 'S' || first == 's') {
+            long steam64 = parseSteam2(id);
+            if (steam64 >= 0) {
+                return new SteamIdentifier(Long.toString(steam64), null);
+            }
+        } else if (first == '[' || first == 'U' || first == 'u') {
+            long steam64 = parseSteam3(id);
+            if (steam64 >= 0) {
+                return new SteamIdentifier(Long.toString(steam64), null);
+            }
+        }
+
+        int path = communityPathStart(id);
+        if (path >= 0) {
+            if (id.regionMatches(true, path, PROFILES_PATH, 0, PROFILES_PATH.length())) {
+                int start = path + PROFILES_PATH.length();
+                int end = segmentEnd(id, start);
+                if (end > start && isDigits(id, start, end)) {
+                    return new SteamIdentifier(id.substring(start, end), null);
+                }
+                return null;
+            }
+            if (id.regionMatches(true, path, ID_PATH, 0, ID_PATH.length())) {
+                int start = path + ID_PATH.length();
+                int end = segmentEnd(id, start);
+                return end > start ? new SteamIdentifier(null, id.substring(start, end)) : null;
+            }
+            return null;
+        }
+
+        return new SteamIdentifier(null, id);
+    }
+
+    /**
+     * Parses {@code STEAM_X:Y:Z}, where Y is the lowest bit and Z the remaining bits of the account number.
+     *
+     * @return the Steam64 ID, or -1 if the input is not in this form
+     */
+    private static long parseSteam2(String id) {
+        if (!id.regionMatches(true, 0, "STEAM_", 0, 6)) {
+            return -1;
+        }
+        int universeEnd = id.indexOf(':', 6);
+        if (universeEnd < 0 || !isDigits(id, 6, universeEnd)) {
+            return -1;
+        }
+        int bitEnd = universeEnd + 2;
+        if (bitEnd >= id.length() || id.charAt(bitEnd) != ':') {
+            return -1;
+        }
+        char bit = id.charAt(universeEnd + 1);
+        if (bit != '0' && bit != '1') {
+            return -1;
+        }
+        long account = parseAccount(id, bitEnd + 1, id.length());
+        if (account < 0 || account > 0x7FFFFFFFL) {
+            return -1;
+        }
+        return STEAM64_BASE + account * 2 + (bit - '0');
+    }
+
+    /**
+     * Parses {@code [U:1:N]} or {@code U:1:N}, where N is the account number.
+     *
+     * @return the Steam64 ID, or -1 if the input is not in this form
+     */
+    private static long parseSteam3(String id) {
+        int start = 0;
+        int end = id.length();
+        if (id.charAt(0) == '[') {
+            if (id.charAt(end - 1) != ']') {
+                return -1;
+            }
+            start++;
+            end--;
+        }
+        if (end - start < 5 || !id.regionMatches(true, start, "U:1:", 0, 4)) {
+            return -1;
+        }
+        long account = parseAccount(id, start + 4, end);
+        return account < 0 ? -1 : STEAM64_BASE + account;
+    }
+
+    /**
+     * Parses an unsigned 32-bit account number.
+     *
+     * @return the account number, or -1 if the range is empty, not numeric or out of range
+     */
+    private static long parseAccount(String s, int start, int end) {
+        if (end <= start || end - start > 10) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= 0xFFFFFFFFL ? value : -1;
+    }
+
+    /**
+     * Returns the index of the path following {@code steamcommunity.com}, accepting an optional {@code http://} or
+     * {@code https://} scheme and {@code www.} prefix.
+     *
+     * @return the index of the path, or -1 if the input is not a community URL
+     */
+    private static int communityPathStart(String id) {
+        int i = 0;
+        if (id.regionMatches(true, 0, "https://", 0, 8)) {
+            i = 8;
+        } else if (id.regionMatches(true, 0, "http://", 0, 7)) {
+            i = 7;
+        }
+        if (id.regionMatches(true, i, "www.", 0, 4)) {
+            i += 4;
+        }
+        if (!id.regionMatches(true, i, HOST, 0, HOST.length())) {
+            return -1;
+        }
+        return i + HOST.length();
+    }
+
+    /**
+     * @return the index of the first {@code /}, {@code ?} or {@code #} at or after start, or the length of the string
+     */
+    private static int segmentEnd(String s, int start) {
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return s.length();
+    }
+
+    private static boolean isDigits(String s, int start, int end) {
+        if (end <= start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,179 @@
+package codes.sharky.steamwidget.utils;
+
+import codes.sharky.steamwidget.model.SteamGame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Selects the k highest scored games from a stream of games, without keeping the others.
+ * <p>
+ * Retained games are stored column-wise in primitive arrays that form a bounded min-heap, with the worst retained game
+ * at the root. A game offered to a full heap either replaces the root or is dropped right away, so selecting the top k
+ * of n games takes O(n log k) time and O(k) memory. Games with equal scores keep the order they were offered in, like a
+ * stable sort would. The arrays grow on demand, so a large limit does not allocate up front.
+ */
+public class TopGames {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int limit;
+    private int size;
+    private long sequence;
+
+    private long[] scores;
+    private long[] sequences;
+    private long[] appIds;
+    private long[] playtimesForever;
+    private long[] playtimes2weeks;
+    private long[] lastPlayed;
+    private String[] names;
+    private String[] iconHashes;
+    private String[] logoHashes;
+
+    /**
+     * @param limit the maximum number of games to retain
+     */
+    public TopGames(int limit) {
+        this.limit = Math.max(0, limit);
+        int capacity = Math.min(this.limit, INITIAL_CAPACITY);
+        scores = new long[capacity];
+        sequences = new long[capacity];
+        appIds = new long[capacity];
+        playtimesForever = new long[capacity];
+        playtimes2weeks = new long[capacity];
+        lastPlayed = new long[capacity];
+        names = new String[capacity];
+        iconHashes = new String[capacity];
+        logoHashes = new String[capacity];
+    }
+
+    /**
+     * Offers a game, retaining it if it is among the top k seen so far.
+     *
+     * @param score the score games are ranked by, higher is better
+     * @param game  the game
+     */
+    public void offer(long score, SteamGame game) {
+        offer(score, game.appId(), game.name(), game.playtimeForever(), game.playtime2weeks() == null ? -1 : game.playtime2weeks(),
+                game.imgIconUrl(), game.imgLogoUrl(), game.lastPlayed());
+    }
+
+    /**
+     * Offers a game, retaining it if it is among the top k seen so far.
+     *
+     * @param score           the score games are ranked by, higher is better
+     * @param appId           Steam application ID
+     * @param name            display name
+     * @param playtimeForever total playtime in minutes
+     * @param playtime2weeks  playtime in the last two weeks in minutes, negative if not reported
+     * @param iconHash        hash of the icon
+     * @param logoHash        hash of the logo
+     * @param lastPlayedAt    time the game was last played in epoch seconds
+     */
+    public void offer(long score, long appId, String name, long playtimeForever, long playtime2weeks, String iconHash, String logoHash, long lastPlayedAt) {
+        long seq = sequence++;
+        boolean replacesRoot = size == limit;
+        if (replacesRoot && (limit == 0 || score <= scores[0])) {
+            return;
+        }
+        if (!replacesRoot && size == scores.length) {
+            grow();
+        }
+        int slot = replacesRoot ? 0 : size++;
+
+        scores[slot] = score;
+        sequences[slot] = seq;
+        appIds[slot] = appId;
+        names[slot] = name;
+        playtimesForever[slot] = playtimeForever;
+        playtimes2weeks[slot] = playtime2weeks;
+        iconHashes[slot] = iconHash;
+        logoHashes[slot] = logoHash;
+        lastPlayed[slot] = lastPlayedAt;
+
+        if (replacesRoot) {
+            siftDown(slot);
+        } else {
+            siftUp(slot);
+        }
+    }
+
+    /**
+     * @return the retained games, best first
+     */
+    public List<SteamGame> toList() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> worse(a, b) ? 1 : worse(b, a) ? -1 : 0);
+
+        List<SteamGame> games = new ArrayList<>(size);
+        for (int i : order) {
+            games.add(new SteamGame(appIds[i], names[i], playtimesForever[i], playtimes2weeks[i] < 0 ? null : playtimes2weeks[i],
+                    iconHashes[i], logoHashes[i], lastPlayed[i]));
+        }
+        return games;
+    }
+
+    /**
+     * @return true if the game in slot a ranks below the game in slot b
+     */
+    private boolean worse(int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && sequences[a] > sequences[b]);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!worse(slot, parent)) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left + 1 < size && worse(left + 1, left) ? left + 1 : left;
+            if (!worse(worst, slot)) {
+                return;
+            }
+            swap(slot, worst);
+            slot = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long score = scores[a]; scores[a] = scores[b]; scores[b] = score;
+        long seq = sequences[a]; sequences[a] = sequences[b]; sequences[b] = seq;
+        long appId = appIds[a]; appIds[a] = appIds[b]; appIds[b] = appId;
+        long forever = playtimesForever[a]; playtimesForever[a] = playtimesForever[b]; playtimesForever[b] = forever;
+        long recent = playtimes2weeks[a]; playtimes2weeks[a] = playtimes2weeks[b]; playtimes2weeks[b] = recent;
+        long played = lastPlayed[a]; lastPlayed[a] = lastPlayed[b]; lastPlayed[b] = played;
+        String name = names[a]; names[a] = names[b]; names[b] = name;
+        String icon = iconHashes[a]; iconHashes[a] = iconHashes[b]; iconHashes[b] = icon;
+        String logo = logoHashes[a]; logoHashes[a] = logoHashes[b]; logoHashes[b] = logo;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(limit, Math.max(INITIAL_CAPACITY, 2L * scores.length));
+        scores = Arrays.copyOf(scores, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        appIds = Arrays.copyOf(appIds, capacity);
+        playtimesForever = Arrays.copyOf(playtimesForever, capacity);
+        playtimes2weeks = Arrays.copyOf(playtimes2weeks, capacity);
+        lastPlayed = Arrays.copyOf(lastPlayed, capacity);
+        names = Arrays.copyOf(names, capacity);
+        iconHashes = Arrays.copyOf(iconHashes, capacity);
+        logoHashes = Arrays.copyOf(logoHashes, capacity);
+    }
+
+}
@@ -0,0 +1,482 @@
+package codes.sharky.steamwidget.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.PriorityQueue;
+
+/**
+ * Minimal pure-Java encoder for lossless WebP (VP8L) images.
+ * <p>
+ * The encoder applies the subtract-green transform and replaces runs of pixels equal to the pixel to the left or
+ * the pixel above with backward references, which is what makes the large flat areas of a widget cheap. All
+ * remaining pixels are written as literals with a single set of prefix codes. There is no color cache and no
+ * meta prefix image, which keeps the encoder small while producing output every WebP decoder accepts.
+ */
+public class WebPLosslessEncoder {
+
+    private WebPLosslessEncoder() {}
+
+    private static final int MAX_DIMENSION = 16384;
+
+    private static final int MIN_MATCH_LENGTH = 3;
+
+    private static final int MAX_MATCH_LENGTH = 4096;
+
+    private static final int NUM_LITERAL_CODES = 256;
+
+    private static final int NUM_LENGTH_CODES = 24;
+
+    private static final int NUM_DISTANCE_CODES = 40;
+
+    private static final int MAX_CODE_LENGTH = 15;
+
+    private static final int MAX_CODE_LENGTH_CODE_LENGTH = 7;
+
+    private static final int TRANSFORM_SUBTRACT_GREEN = 2;
+
+    /** VP8L distance codes for the neighbourhood offsets (0, 1) and (1, 0), i.e. the pixel above and to the left. */
+    private static final int DISTANCE_CODE_ABOVE = 1;
+
+    private static final int DISTANCE_CODE_LEFT = 2;
+
+    /** Order in which the code lengths of the code length code are stored. */
+    private static final int[] CODE_LENGTH_CODE_ORDER = {17, 18, 0, 1, 2, 3, 4, 5, 16, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+
+    /**
+     * Encodes the image as a lossless WebP file and writes it into the given stream. The stream is not closed.
+     *
+     * @param image the image to encode, at most 16384 pixels in each dimension
+     * @param out   the stream the WebP file is written to
+     * @throws IOException if the image is too large or the stream could not be written
+     */
+    public static void write(@NotNull BufferedImage image, @NotNull OutputStream out) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+            throw new IOException("Image too large for WebP: " + width + "x" + height);
+        }
+
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        boolean alphaUsed = false;
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i];
+            alphaUsed |= (argb >>> 24) != 0xff;
+            int green = (argb >> 8) & 0xff;
+            int red = ((argb >> 16) - green) & 0xff;
+            int blue = (argb - green) & 0xff;
+            pixels[i] = (argb & 0xff00ff00) | (red << 16) | blue;
+        }
+
+        /*
+         * The prefix codes precede the pixel data, so the backward references are searched twice: once to count the
+         * symbols and once to write them. This costs a second pass but no buffer of pixel count tokens.
+         */
+        int[] green = new int[NUM_LITERAL_CODES + NUM_LENGTH_CODES];
+        int[] red = new int[NUM_LITERAL_CODES];
+        int[] blue = new int[NUM_LITERAL_CODES];
+        int[] alpha = new int[NUM_LITERAL_CODES];
+        int[] distance = new int[NUM_DISTANCE_CODES];
+
+        int i = 0;
+        while (i < pixels.length) {
+            int reference = findReference(pixels, i, width);
+            if (reference != 0) {
+                int length = reference >> 1;
+                green[NUM_LITERAL_CODES + prefixCode(length)]++;
+                distance[prefixCode((reference & 1) == 1 ? DISTANCE_CODE_LEFT : DISTANCE_CODE_ABOVE)]++;
+                i += length;
+            } else {
+                int argb = pixels[i];
+                green[(argb >> 8) & 0xff]++;
+                red[(argb >> 16) & 0xff]++;
+                blue[argb & 0xff]++;
+                alpha[argb >>> 24]++;
+                i++;
+            }
+        }
+
+        BitWriter bits = new BitWriter(pixels.length / 4 + 1024);
+        bits.write(0x2f, 8);
+        bits.write(width - 1, 14);
+        bits.write(height - 1, 14);
+        bits.write(alphaUsed ? 1 : 0, 1);
+        bits.write(0, 3);
+
+        /* One subtract-green transform, then no further transforms, no color cache and no meta prefix codes */
+        bits.write(1, 1);
+        bits.write(TRANSFORM_SUBTRACT_GREEN, 2);
+        bits.write(0, 1);
+        bits.write(0, 1);
+        bits.write(0, 1);
+
+        PrefixCode greenCode = writePrefixCode(bits, green);
+        PrefixCode redCode = writePrefixCode(bits, red);
+        PrefixCode blueCode = writePrefixCode(bits, blue);
+        PrefixCode alphaCode = writePrefixCode(bits, alpha);
+        PrefixCode distanceCode = writePrefixCode(bits, distance);
+
+        i = 0;
+        while (i < pixels.length) {
+            int reference = findReference(pixels, i, width);
+            if (reference != 0) {
+                int length = reference >> 1;
+                greenCode.write(bits, NUM_LITERAL_CODES + prefixCode(length));
+                writePrefixExtraBits(bits, length);
+                int distanceValue = (reference & 1) == 1 ? DISTANCE_CODE_LEFT : DISTANCE_CODE_ABOVE;
+                distanceCode.write(bits, prefixCode(distanceValue));
+                writePrefixExtraBits(bits, distanceValue);
+                i += length;
+            } else {
+                int argb = pixels[i];
+                greenCode.write(bits, (argb >> 8) & 0xff);
+                redCode.write(bits, (argb >> 16) & 0xff);
+                blueCode.write(bits, argb & 0xff);
+                alphaCode.write(bits, argb >>> 24);
+                i++;
+            }
+        }
+
+        byte[] data = bits.finish();
+        int padding = data.length & 1;
+        writeChars(out, "RIFF");
+        writeInt(out, 4 + 8 + data.length + padding);
+        writeChars(out, "WEBP");
+        writeChars(out, "VP8L");
+        writeInt(out, data.length);
+        out.write(data);
+        if (padding == 1) {
+            out.write(0);
+        }
+    }
+
+    /**
+     * Returns the backward reference the pixels starting at the given index are written with, as
+     * {@code length << 1 | isLeft}, or 0 if the pixel is written as a literal.
+     */
+    private static int findReference(int[] pixels, int index, int width) {
+        int leftLength = matchLength(pixels, index, 1);
+        int aboveLength = matchLength(pixels, index, width);
+        int length = Math.max(leftLength, aboveLength);
+        if (length < MIN_MATCH_LENGTH) {
+            return 0;
+        }
+        return (length << 1) | (leftLength >= aboveLength ? 1 : 0);
+    }
+
+    /**
+     * Returns how many pixels starting at the given index equal the pixel the given distance before them.
+     */
+    private static int matchLength(int[] pixels, int index, int distance) {
+        if (index < distance) {
+            return 0;
+        }
+        int max = Math.min(MAX_MATCH_LENGTH, pixels.length - index);
+        int length = 0;
+        while (length < max && pixels[index + length] == pixels[index + length - distance]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the prefix code of a backward reference length or distance code.
+     */
+    private static int prefixCode(int value) {
+        if (value <= 4) {
+            return value - 1;
+        }
+        int d = value - 1;
+        int highestBit = 31 - Integer.numberOfLeadingZeros(d);
+        int secondHighestBit = (d >> (highestBit - 1)) & 1;
+        return 2 * highestBit + secondHighestBit;
+    }
+
+    /**
+     * Writes the extra bits that follow the prefix code of a backward reference length or distance code.
+     */
+    private static void writePrefixExtraBits(BitWriter bits, int value) {
+        if (value <= 4) {
+            return;
+        }
+        int d = value - 1;
+        int extraBits = 30 - Integer.numberOfLeadingZeros(d);
+        bits.write(d & ((1 << extraBits) - 1), extraBits);
+    }
+
+    /**
+     * Builds a prefix code for the given histogram and writes its description. Alphabets with at most two used
+     * symbols below 256 are written as a simple code, all others as a normal code with run-length coded lengths.
+     *
+     * @return the code used to write symbols of this alphabet
+     */
+    private static PrefixCode writePrefixCode(BitWriter bits, int[] histogram) {
+        int used = 0;
+        int[] symbols = new int[2];
+        for (int s = 0; s < histogram.length; s++) {
+            if (histogram[s] > 0) {
+                if (used < 2) {
+                    symbols[used] = s;
+                }
+                used++;
+            }
+        }
+
+        int[] lengths = new int[histogram.length];
+        if (used <= 2 && symbols[used == 2 ? 1 : 0] < NUM_LITERAL_CODES) {
+            bits.write(1, 1);
+            bits.write(Math.max(used, 1) - 1, 1);
+            if (symbols[0] < 2) {
+                bits.write(0, 1);
+                bits.write(symbols[0], 1);
+            } else {
+                bits.write(1, 1);
+                bits.write(symbols[0], 8);
+            }
+            if (used == 2) {
+                bits.write(symbols[1], 8);
+                lengths[symbols[0]] = 1;
+                lengths[symbols[1]] = 1;
+            }
+            /* A single symbol is coded with zero bits */
+            return new PrefixCode(lengths);
+        }
+
+        lengths = codeLengths(histogram, MAX_CODE_LENGTH);
+
+        /* Run-length code the code lengths: 16 repeats the previous length, 17 and 18 repeat zeros */
+        int[] tokenSymbols = new int[lengths.length];
+        int[] tokenExtra = new int[lengths.length];
+        int tokenCount = 0;
+        int[] codeLengthHistogram = new int[19];
+        int s = 0;
+        while (s < lengths.length) {
+            int value = lengths[s];
+            int run = 1;
+            while (s + run < lengths.length && lengths[s + run] == value) {
+                run++;
+            }
+            s += run;
+            if (value == 0) {
+                while (run > 0) {
+                    if (run >= 11) {
+                        int repeat = Math.min(run, 138);
+                        tokenSymbols[tokenCount] = 18;
+                        tokenExtra[tokenCount++] = repeat - 11;
+                        run -= repeat;
+                    } else if (run >= 3) {
+                        tokenSymbols[tokenCount] = 17;
+                        tokenExtra[tokenCount++] = run - 3;
+                        run = 0;
+                    } else {
+                        tokenSymbols[tokenCount++] = 0;
+                        run--;
+                    }
+                }
+            } else {
+                tokenSymbols[tokenCount++] = value;
+                run--;
+                while (run > 0) {
+                    if (run >= 3) {
+                        int repeat = Math.min(run, 6);
+                        tokenSymbols[tokenCount] = 16;
+                        tokenExtra[tokenCount++] = repeat - 3;
+                        run -= repeat;
+                    } else {
+                        tokenSymbols[tokenCount++] = value;
+                        run--;
+                    }
+                }
+            }
+        }
+        for (int t = 0; t < tokenCount; t++) {
+            codeLengthHistogram[tokenSymbols[t]]++;
+        }
+
+        PrefixCode codeLengthCode = new PrefixCode(codeLengths(codeLengthHistogram, MAX_CODE_LENGTH_CODE_LENGTH));
+        int codeLengthCount = CODE_LENGTH_CODE_ORDER.length;
+        while (codeLengthCount > 4 && codeLengthCode.lengths[CODE_LENGTH_CODE_ORDER[codeLengthCount - 1]] == 0) {
+            codeLengthCount--;
+        }
+
+        bits.write(0, 1);
+        bits.write(codeLengthCount - 4, 4);
+        for (int c = 0; c < codeLengthCount; c++) {
+            bits.write(codeLengthCode.lengths[CODE_LENGTH_CODE_ORDER[c]], 3);
+        }
+        /* The lengths of all symbols of the alphabet follow */
+        bits.write(0, 1);
+        for (int t = 0; t < tokenCount; t++) {
+            codeLengthCode.write(bits, tokenSymbols[t]);
+            switch (tokenSymbols[t]) {
+                case 16 -> bits.write(tokenExtra[t], 2);
+                case 17 -> bits.write(tokenExtra[t], 3);
+                case 18 -> bits.write(tokenExtra[t], 7);
+                default -> { }
+            }
+        }
+
+        return new PrefixCode(lengths);
+    }
+
+    /**
+     * Computes Huffman code lengths limited to the given maximum. If the optimal code is too deep, the frequencies
+     * are flattened until it fits. A histogram with a single used symbol gets a second, unused symbol so the
+     * resulting code is always complete.
+     */
+    private static int[] codeLengths(int[] histogram, int maxLength) {
+        int n = histogram.length;
+        long[] frequencies = new long[n];
+        int used = 0;
+        for (int s = 0; s < n; s++) {
+            frequencies[s] = histogram[s];
+            if (histogram[s] > 0) {
+                used++;
+            }
+        }
+
+        int[] lengths = new int[n];
+        if (used == 0) {
+            return lengths;
+        }
+        if (used == 1) {
+            for (int s = 0; s < n; s++) {
+                if (histogram[s] > 0) {
+                    lengths[s] = 1;
+                    lengths[s == 0 ? 1 : 0] = 1;
+                }
+            }
+            return lengths;
+        }
+
+        while (true) {
+            int[] parents = new int[2 * n];
+            long[] weights = new long[2 * n];
+            PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> weights[a] != weights[b] ? Long.compare(weights[a], weights[b]) : Integer.compare(a, b));
+            for (int s = 0; s < n; s++) {
+                if (frequencies[s] > 0) {
+                    weights[s] = frequencies[s];
+                    queue.add(s);
+                }
+            }
+            int next = n;
+            while (queue.size() > 1) {
+                int a = queue.poll();
+                int b = queue.poll();
+                weights[next] = weights[a] + weights[b];
+                parents[a] = next;
+                parents[b] = next;
+                queue.add(next++);
+            }
+            int root = next - 1;
+
+            int max = 0;
+            for (int s = 0; s < n; s++) {
+                if (frequencies[s] > 0) {
+                    int depth = 0;
+                    for (int node = s; node != root; node = parents[node]) {
+                        depth++;
+                    }
+                    lengths[s] = depth;
+                    max = Math.max(max, depth);
+                }
+            }
+            if (max <= maxLength) {
+                return lengths;
+            }
+            for (int s = 0; s < n; s++) {
+                if (frequencies[s] > 0) {
+                    frequencies[s] = Math.max(1, frequencies[s] >> 1);
+                }
+            }
+        }
+    }
+
+    private static void writeChars(OutputStream out, String chars) throws IOException {
+        for (int c = 0; c < chars.length(); c++) {
+            out.write(chars.charAt(c));
+        }
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Canonical prefix code with the bit-reversed codes ready to be written least significant bit first.
+     */
+    private static final class PrefixCode {
+
+        private final int[] lengths;
+
+        private final int[] codes;
+
+        private PrefixCode(int[] lengths) {
+            this.lengths = lengths;
+            this.codes = new int[lengths.length];
+
+            int[] lengthCounts = new int[MAX_CODE_LENGTH + 1];
+            for (int length : lengths) {
+                lengthCounts[length]++;
+            }
+            lengthCounts[0] = 0;
+            int[] nextCode = new int[MAX_CODE_LENGTH + 1];
+            int code = 0;
+            for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+                code = (code + lengthCounts[length - 1]) << 1;
+                nextCode[length] = code;
+            }
+            for (int s = 0; s < lengths.length; s++) {
+                if (lengths[s] > 0) {
+                    codes[s] = Integer.reverse(nextCode[lengths[s]]++) >>> (32 - lengths[s]);
+                }
+            }
+        }
+
+        private void write(BitWriter bits, int symbol) {
+            bits.write(codes[symbol], lengths[symbol]);
+        }
+    }
+
+    /**
+     * Writes bits least significant bit first, as required by the VP8L bitstream.
+     */
+    private static final class BitWriter {
+
+        private final ByteArrayOutputStream buffer;
+
+        private long accumulator;
+
+        private int count;
+
+        private BitWriter(int initialCapacity) {
+            this.buffer = new ByteArrayOutputStream(initialCapacity);
+        }
+
+        private void write(int value, int bitCount) {
+            accumulator |= ((long) value & ((1L << bitCount) - 1)) << count;
+            count += bitCount;
+            while (count >= 8) {
+                buffer.write((int) accumulator & 0xff);
+                accumulator >>>= 8;
+                count -= 8;
+            }
+        }
+
+        private byte[] finish() {
+            if (count > 0) {
+                buffer.write((int) accumulator & 0xff);
+                accumulator = 0;
+                count = 0;
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package codes.sharky.steamwidget.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaletteQuantizerTest {
+
+    @Test
+    void keepsImagesWithFewColorsExact() {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        int[] colors = {0xff171d25, 0xffffffff, 0x80ff0000, 0x00123456};
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, colors[(x + y) % colors.length]);
+            }
+        }
+
+        BufferedImage indexed = PaletteQuantizer.quantize(image);
+
+        assertThat(indexed.getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                int expected = image.getRGB(x, y);
+                assertThat(indexed.getRGB(x, y)).isEqualTo((expected >>> 24) == 0 ? 0 : expected);
+            }
+        }
+    }
+
+    @Test
+    void reducesImagesWithMoreThan256ColorsToThePaletteSize() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, 0xff000000 | (x * 4) << 16 | (y * 4) << 8 | 0x80);
+            }
+        }
+        /* A dominant flat color, like a widget background, and a transparent corner */
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                image.setRGB(x, y, 0xff171d25);
+            }
+        }
+        image.setRGB(63, 63, 0);
+
+        BufferedImage indexed = PaletteQuantizer.quantize(image);
+
+        assertThat(indexed.getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+        assertThat(((IndexColorModel) indexed.getColorModel()).getMapSize()).isLessThanOrEqualTo(256);
+        assertThat(indexed.getRGB(0, 0)).isEqualTo(0xff171d25);
+        assertThat(indexed.getRGB(63, 63) >>> 24).isZero();
+
+        long error = 0;
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                int expected = image.getRGB(x, y);
+                int actual = indexed.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    error += Math.abs(((expected >>> shift) & 0xff) - ((actual >>> shift) & 0xff));
+                }
+            }
+        }
+        /* A smooth gradient spreads evenly over far more buckets than fit the palette, so this is a loose bound */
+        assertThat(error / (64 * 64 * 4.0)).isLessThan(16);
+    }
+
+}
@@ -0,0 +1,65 @@
+package codes.sharky.steamwidget.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SteamIdParser} with the regular expression based checks {@code resolveSteamId} used before, for the
+ * identifier forms both of them handle locally or turn into a vanity name.
+ * <p>
+ * Not run by the test suite; start {@link #main(String[])} after {@code mvn test-compile}, or pass the class name to the
+ * JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SteamIdParserBenchmark {
+
+    @Param({"76561197960287930", "https://steamcommunity.com/id/gabelogannewell/", "gabelogannewell"})
+    public String input;
+
+    @Benchmark
+    public Object parser() {
+        return SteamIdParser.parse(input);
+    }
+
+    @Benchmark
+    public Object regex() {
+        return legacyVanityName(input);
+    }
+
+    /**
+     * The local part of the previous {@code resolveSteamId}: returns the input if it counts as a Steam64 ID, otherwise
+     * the vanity name that was sent to ResolveVanityURL.
+     */
+    private static String legacyVanityName(String steamId) {
+        String id = steamId;
+        if (!(id.matches("[0-9]+")) && id.length() != 17) {
+            if (id.contains("https://steamcommunity.com/id/")) {
+                id = id.replaceAll("https://steamcommunity.com/id/", "").replaceAll("/", "");
+            }
+        }
+        return id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SteamIdParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,95 @@
+package codes.sharky.steamwidget.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SteamIdParserTest {
+
+    private static final String STEAM64 = "76561197960287930";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            STEAM64,
+            " " + STEAM64 + " ",
+            "https://steamcommunity.com/profiles/" + STEAM64,
+            "https://steamcommunity.com/profiles/" + STEAM64 + "/",
+            "https://steamcommunity.com/profiles/" + STEAM64 + "/?tab=all",
+            "https://steamcommunity.com/profiles/" + STEAM64 + "?l=german",
+            "http://www.steamcommunity.com/profiles/" + STEAM64 + "#games",
+            "steamcommunity.com/profiles/" + STEAM64,
+            "HTTPS://SteamCommunity.com/Profiles/" + STEAM64,
+            "STEAM_0:0:11101",
+            "STEAM_1:0:11101",
+            "steam_0:0:11101",
+            "[U:1:22202]",
+            "U:1:22202",
+    })
+    void parsesNumericFormsToSteam64Ids(String input) {
+        SteamIdParser.SteamIdentifier identifier = SteamIdParser.parse(input);
+
+        assertThat(identifier).isNotNull();
+        assertThat(identifier.isVanity()).isFalse();
+        assertThat(identifier.steam64Id()).isEqualTo(STEAM64);
+    }
+
+    @Test
+    void addsTheLowBitOfSteam2Ids() {
+        assertThat(SteamIdParser.parse("STEAM_0:1:11101").steam64Id()).isEqualTo("76561197960287931");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "gabelogannewell",
+            "https://steamcommunity.com/id/gabelogannewell",
+            "https://steamcommunity.com/id/gabelogannewell/",
+            "https://steamcommunity.com/id/gabelogannewell/?xml=1",
+            "https://steamcommunity.com/id/gabelogannewell?l=english",
+            "www.steamcommunity.com/id/gabelogannewell/games/",
+    })
+    void parsesVanityNamesAndUrls(String input) {
+        SteamIdParser.SteamIdentifier identifier = SteamIdParser.parse(input);
+
+        assertThat(identifier).isNotNull();
+        assertThat(identifier.isVanity()).isTrue();
+        assertThat(identifier.vanityName()).isEqualTo("gabelogannewell");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "https://steamcommunity.com/id/",
+            "https://steamcommunity.com/id//",
+            "https://steamcommunity.com/profiles/",
+            "https://steamcommunity.com/profiles/gabe",
+            "https://steamcommunity.com/groups/valve",
+            "https://steamcommunity.com",
+    })
+    void rejectsBlankInputAndUnusableCommunityUrls(String input) {
+        assertThat(SteamIdParser.parse(input)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "STEAM_0:2:11101",
+            "STEAM_0:0:",
+            "STEAM_0:0:99999999999",
+            "STEAM_x:0:1",
+            "[U:1:]",
+            "[U:1:22202",
+            "U:2:22202",
+            "https://example.com/profiles/" + STEAM64,
+            "not a steam id",
+    })
+    void passesGarbageOnAsVanityNameWithoutConvertingIt(String input) {
+        SteamIdParser.SteamIdentifier identifier = SteamIdParser.parse(input);
+
+        assertThat(identifier).isNotNull();
+        assertThat(identifier.steam64Id()).isNull();
+        assertThat(identifier.vanityName()).isEqualTo(input);
+    }
+
+}
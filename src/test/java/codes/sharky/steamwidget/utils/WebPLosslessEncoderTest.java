@@ -0,0 +1,130 @@
+package codes.sharky.steamwidget.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebPLosslessEncoderTest {
+
+    @Test
+    void writesRiffContainerWithVp8lChunk() throws IOException {
+        BufferedImage image = gradient(37, 21, true);
+
+        byte[] webp = encode(image);
+        ByteBuffer buffer = ByteBuffer.wrap(webp).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(new String(webp, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+        assertThat(buffer.getInt(4)).isEqualTo(webp.length - 8);
+        assertThat(new String(webp, 8, 4, StandardCharsets.US_ASCII)).isEqualTo("WEBP");
+        assertThat(new String(webp, 12, 4, StandardCharsets.US_ASCII)).isEqualTo("VP8L");
+        int chunkSize = buffer.getInt(16);
+        /* Chunks are padded to an even size, the padding is not part of the chunk size */
+        assertThat(webp.length).isEven();
+        assertThat(webp.length - 20 - chunkSize).isBetween(0, 1);
+
+        assertThat(webp[20] & 0xff).isEqualTo(0x2f);
+        int header = buffer.getInt(21);
+        assertThat(header & 0x3fff).isEqualTo(37 - 1);
+        assertThat((header >>> 14) & 0x3fff).isEqualTo(21 - 1);
+        assertThat((header >>> 28) & 1).as("alpha used").isEqualTo(1);
+        assertThat(header >>> 29).as("version").isZero();
+    }
+
+    @Test
+    void clearsAlphaHintForOpaqueImages() throws IOException {
+        byte[] webp = encode(solid(8, 8, 0xff171d25));
+
+        int header = ByteBuffer.wrap(webp).order(ByteOrder.LITTLE_ENDIAN).getInt(21);
+        assertThat((header >>> 28) & 1).isZero();
+    }
+
+    @Test
+    void roundTripsSolidImages() throws IOException {
+        /* The test decoder reads ahead in 8 byte words, so images of a few pixels are too small for it */
+        assertRoundTrip(solid(64, 48, 0xff171d25));
+        assertRoundTrip(solid(33, 7, 0x00000000));
+    }
+
+    @Test
+    void roundTripsGradientImages() throws IOException {
+        /* Wide enough to use every value of every channel, so all prefix codes are written as normal codes */
+        assertRoundTrip(gradient(300, 40, false));
+    }
+
+    @Test
+    void roundTripsImagesWithAlpha() throws IOException {
+        BufferedImage image = gradient(120, 60, true);
+        /* Flat areas with backward references to the left and above next to the literals */
+        for (int y = 10; y < 30; y++) {
+            for (int x = 20; x < 80; x++) {
+                image.setRGB(x, y, 0x80ff0000);
+            }
+        }
+        assertRoundTrip(image);
+    }
+
+    @Test
+    void rejectsImagesLargerThanTheFormatAllows() {
+        BufferedImage image = new BufferedImage(16385, 1, BufferedImage.TYPE_INT_ARGB);
+
+        assertThatThrownBy(() -> encode(image)).isInstanceOf(IOException.class);
+    }
+
+    private static void assertRoundTrip(BufferedImage image) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(encode(image)));
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.getWidth()).isEqualTo(image.getWidth());
+        assertThat(decoded.getHeight()).isEqualTo(image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int expected = image.getRGB(x, y);
+                int actual = decoded.getRGB(x, y);
+                /* Fully transparent pixels may come back with any color */
+                if ((expected >>> 24) == 0) {
+                    assertThat(actual >>> 24).as("alpha at %d,%d", x, y).isZero();
+                } else {
+                    assertThat(Integer.toHexString(actual)).as("pixel at %d,%d", x, y).isEqualTo(Integer.toHexString(expected));
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WebPLosslessEncoder.write(image, out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage solid(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage gradient(int width, int height, boolean alpha) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int a = alpha ? (x * 7 + y) & 0xff : 0xff;
+                image.setRGB(x, y, a << 24 | (x & 0xff) << 16 | ((x + y * 3) & 0xff) << 8 | ((x * y) & 0xff));
+            }
+        }
+        return image;
+    }
+
+}